@@ -0,0 +1,123 @@
+package com.github.nija123098.configurationcodeloader.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates and compiles configuration classes of a given size for benchmarks.
+ * <p>
+ * Generated classes have {@code public static final Object} fields named {@code F0} to {@code Fn}.
+ */
+final class GeneratedConfiguration {
+    /**
+     * The filter selecting all fields of a generated class.
+     */
+    static final Predicate<Field> ALL_STATIC_FIELDS = field -> Modifier.isStatic(field.getModifiers());
+
+    private GeneratedConfiguration() {
+    }
+
+    /**
+     * Make a temporary directory to compile classes into.
+     *
+     * @return the directory.
+     */
+    static Path makeTemporaryDirectory() {
+        try {
+            return Files.createTempDirectory("configuration-code-loader-benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write and compile a configuration class.
+     *
+     * @param directory    the directory to compile the class into.
+     * @param className    the simple name of the class, in the default package.
+     * @param fieldCount   the number of fields of the class.
+     * @param changedCount the number of fields, starting from the first, with a value distinct from an unchanged class.
+     */
+    static void compile(Path directory, String className, int fieldCount, int changedCount) {
+        List<String> lines = new ArrayList<>(fieldCount + 2);
+        lines.add("public class " + className + " {");
+        for (int i = 0; i < fieldCount; i++) {
+            lines.add("    public static final Object F" + i + " = \"" + (i < changedCount ? "changed" : "value") + i + "\";");
+        }
+        lines.add("}");
+        try {
+            Path source = directory.resolve(className + ".java");
+            Files.write(source, lines);
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            if (compiler == null) {
+                throw new IllegalStateException("Benchmarks must be run on a JDK");
+            }
+            if (compiler.run(null, null, null, "-d", directory.toString(), source.toString()) != 0) {
+                throw new IllegalStateException("Unable to compile " + source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Load a compiled class in a new class loader.
+     *
+     * @param directory the directory the class was compiled into.
+     * @param className the simple name of the class.
+     * @return the class.
+     */
+    static Class<?> load(Path directory, String className) {
+        try {
+            return new URLClassLoader(new URL[]{toURL(directory)}).loadClass(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get the URL of a directory.
+     *
+     * @param directory the directory.
+     * @return the URL.
+     */
+    static URL toURL(Path directory) {
+        try {
+            return directory.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Delete a directory and the files directly in it.
+     *
+     * @param directory the directory to delete.
+     */
+    static void delete(Path directory) {
+        try {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
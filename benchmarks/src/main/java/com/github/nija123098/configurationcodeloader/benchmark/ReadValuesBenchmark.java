@@ -0,0 +1,53 @@
+package com.github.nija123098.configurationcodeloader.benchmark;
+
+import com.github.nija123098.configurationcodeloader.reader.VariableConfigurationReader;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link VariableConfigurationReader#readValues()} for classes of different sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadValuesBenchmark {
+    @Param({"1", "10", "100"})
+    public int fieldCount;
+
+    private Path directory;
+    private VariableConfigurationReader<Object> reader;
+
+    @Setup
+    public void setup() {
+        this.directory = GeneratedConfiguration.makeTemporaryDirectory();
+        GeneratedConfiguration.compile(this.directory, "ReadValues", this.fieldCount, 0);
+        this.reader = new VariableConfigurationReader<>(GeneratedConfiguration.load(this.directory, "ReadValues"), null, GeneratedConfiguration.ALL_STATIC_FIELDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        GeneratedConfiguration.delete(this.directory);
+    }
+
+    @Benchmark
+    public ConfigurationResults<Object> readValues() {
+        return this.reader.readValues();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.nija123098.configurationcodeloader.benchmark;
+
+import com.github.nija123098.configurationcodeloader.reader.ChangingVariableConfigurationReader;
+import com.github.nija123098.configurationcodeloader.reader.ReloadRequiredConfigurationReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the read and diff of {@link ReloadRequiredConfigurationReader#reload()}
+ * alternating between two already loaded classes which differ in a ratio of their fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReloadDiffBenchmark {
+    @Param({"10", "100"})
+    public int fieldCount;
+
+    @Param({"0.0", "0.1", "1.0"})
+    public double changeRatio;
+
+    private Path directory;
+    private Class<?>[] classes;
+    private int next;
+    private ChangingVariableConfigurationReader<Object> reader;
+
+    @Setup
+    public void setup() {
+        this.directory = GeneratedConfiguration.makeTemporaryDirectory();
+        GeneratedConfiguration.compile(this.directory, "ReloadA", this.fieldCount, 0);
+        GeneratedConfiguration.compile(this.directory, "ReloadB", this.fieldCount, (int) Math.round(this.fieldCount * this.changeRatio));
+        this.classes = new Class<?>[]{GeneratedConfiguration.load(this.directory, "ReloadA"), GeneratedConfiguration.load(this.directory, "ReloadB")};
+        this.reader = new ChangingVariableConfigurationReader<Object>(() -> this.classes[this.next], GeneratedConfiguration.ALL_STATIC_FIELDS) {
+        };
+        this.reader.registerListener(results -> {
+        });
+        this.reader.startProviding();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.reader.stopProviding();
+        GeneratedConfiguration.delete(this.directory);
+    }
+
+    @Benchmark
+    public void reload() {
+        this.next ^= 1;
+        this.reader.reload();
+    }
+}
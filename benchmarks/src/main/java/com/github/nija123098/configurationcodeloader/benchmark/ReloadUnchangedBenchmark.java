@@ -0,0 +1,58 @@
+package com.github.nija123098.configurationcodeloader.benchmark;
+
+import com.github.nija123098.configurationcodeloader.reader.ReloadRequiredConfigurationReader;
+import com.github.nija123098.configurationcodeloader.reader.VariableConfigurationReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ReloadRequiredConfigurationReader#reload()} of a single class with no changes,
+ * the steady state of a reader whose configuration rarely changes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReloadUnchangedBenchmark {
+    @Param({"10", "100"})
+    public int fieldCount;
+
+    private Path directory;
+    private VariableConfigurationReader<Object> reader;
+
+    @Setup
+    public void setup() {
+        this.directory = GeneratedConfiguration.makeTemporaryDirectory();
+        GeneratedConfiguration.compile(this.directory, "ReloadUnchanged", this.fieldCount, 0);
+        this.reader = new VariableConfigurationReader<>(GeneratedConfiguration.load(this.directory, "ReloadUnchanged"), null, GeneratedConfiguration.ALL_STATIC_FIELDS);
+        this.reader.registerListener(results -> {
+        });
+        this.reader.startProviding();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.reader.stopProviding();
+        GeneratedConfiguration.delete(this.directory);
+    }
+
+    @Benchmark
+    public void reload() {
+        this.reader.reload();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.nija123098.configurationcodeloader.benchmark;
+
+import com.github.nija123098.configurationcodeloader.util.Register;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Register} submission fan-out to a number of listeners,
+ * uncontended and with several submitting threads.
+ * <p>
+ * Use {@code -t} to measure other thread counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubmitBenchmark {
+    @Param({"1", "10", "100"})
+    public int listenerCount;
+
+    private PublicRegister register;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.register = new PublicRegister();
+        for (int i = 0; i < this.listenerCount; i++) {
+            this.register.registerListener(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void submit() {
+        this.register.submit(this);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void submitContended() {
+        this.register.submit(this);
+    }
+
+    /**
+     * Exposes submission for benchmarking.
+     */
+    private static class PublicRegister extends Register<Object> {
+        @Override
+        public void submit(Object o) {
+            super.submit(o);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.nija123098.configurationcodeloader.benchmark;
+
+import com.github.nija123098.configurationcodeloader.reader.URLClassVariableConfigurationReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link URLClassVariableConfigurationReader#reload()} from a class directory,
+ * either with the class file unchanged or with it replaced between two versions on every reload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class URLReloadBenchmark {
+    @Param({"10", "100"})
+    public int fieldCount;
+
+    @Param({"false", "true"})
+    public boolean changed;
+
+    private Path directory, versions;
+    private byte[][] classFiles;
+    private int next;
+    private URLClassVariableConfigurationReader<Object> reader;
+
+    @Setup
+    public void setup() throws IOException {
+        this.directory = GeneratedConfiguration.makeTemporaryDirectory();
+        this.versions = GeneratedConfiguration.makeTemporaryDirectory();
+        GeneratedConfiguration.compile(this.versions, "URLReload", this.fieldCount, 0);
+        byte[] first = Files.readAllBytes(this.versions.resolve("URLReload.class"));
+        GeneratedConfiguration.compile(this.versions, "URLReload", this.fieldCount, this.fieldCount);
+        byte[] second = Files.readAllBytes(this.versions.resolve("URLReload.class"));
+        this.classFiles = new byte[][]{first, second};
+        Files.write(this.directory.resolve("URLReload.class"), first);
+        this.reader = new URLClassVariableConfigurationReader<Object>(GeneratedConfiguration.toURL(this.directory), "URLReload", GeneratedConfiguration.ALL_STATIC_FIELDS) {
+        };
+        this.reader.registerListener(results -> {
+        });
+        this.reader.startProviding();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.reader.stopProviding();
+        GeneratedConfiguration.delete(this.directory);
+        GeneratedConfiguration.delete(this.versions);
+    }
+
+    @Benchmark
+    public void reload() {
+        if (this.changed) {
+            this.next ^= 1;
+            try {
+                Files.write(this.directory.resolve("URLReload.class"), this.classFiles[this.next]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        this.reader.reload();
+    }
+}
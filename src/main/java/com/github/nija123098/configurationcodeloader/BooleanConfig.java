@@ -0,0 +1,44 @@
+package com.github.nija123098.configurationcodeloader;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A {@link ConfigHandle} for a configuration of {@link Boolean} values which is read without boxing.
+ */
+public final class BooleanConfig extends ConfigHandle implements BooleanSupplier {
+    /**
+     * The value when the configuration is unset.
+     */
+    private final boolean defaultValue;
+
+    /**
+     * The current value, the default if unset.
+     */
+    private volatile boolean value;
+
+    BooleanConfig(String name, boolean defaultValue) {
+        super(name);
+        this.defaultValue = defaultValue;
+        this.value = defaultValue;
+    }
+
+    /**
+     * Get the current value of the configuration.
+     *
+     * @return the value, or the default if unset.
+     */
+    @Override
+    public boolean getAsBoolean() {
+        return this.value;
+    }
+
+    @Override
+    void update(Object value) {
+        this.value = value == null ? this.defaultValue : (Boolean) value;
+    }
+
+    @Override
+    boolean isEquivalent(ConfigHandle other) {
+        return other instanceof BooleanConfig && ((BooleanConfig) other).defaultValue == this.defaultValue;
+    }
+}
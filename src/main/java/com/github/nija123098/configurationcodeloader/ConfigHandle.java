@@ -0,0 +1,44 @@
+package com.github.nija123098.configurationcodeloader;
+
+/**
+ * A handle holding the current value of a single configuration,
+ * updated by the {@link ConfigurationCodeLoader} it was made by when the configuration changes.
+ * <p>
+ * Reading the value of a handle does not require looking up the configuration by name.
+ */
+public abstract class ConfigHandle {
+    /**
+     * The name of the configuration.
+     */
+    private final String name;
+
+    ConfigHandle(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the configuration this handle holds.
+     *
+     * @return the name of the configuration.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Set the value of the configuration.
+     *
+     * @param value the new value, null if unset.
+     * @throws ClassCastException if the value is not of the handle's type.
+     */
+    abstract void update(Object value);
+
+    /**
+     * Check if another handle of the same configuration always holds the same value as this one,
+     * so that one handle can be shared rather than binding both.
+     *
+     * @param other the other handle.
+     * @return if the handles are interchangeable.
+     */
+    abstract boolean isEquivalent(ConfigHandle other);
+}
@@ -0,0 +1,51 @@
+package com.github.nija123098.configurationcodeloader;
+
+/**
+ * A {@link ConfigHandle} for a configuration of an object type.
+ *
+ * @param <T> the type of the configuration value.
+ */
+public final class ConfigKey<T> extends ConfigHandle {
+    /**
+     * The type of the configuration value.
+     */
+    private final Class<T> type;
+
+    /**
+     * The current value, null if unset.
+     */
+    private volatile T value;
+
+    ConfigKey(String name, Class<T> type) {
+        super(name);
+        this.type = type;
+    }
+
+    /**
+     * Get the current value of the configuration.
+     *
+     * @return the value, null if unset.
+     */
+    public T get() {
+        return this.value;
+    }
+
+    /**
+     * Get the type of the configuration value.
+     *
+     * @return the type.
+     */
+    public Class<T> getType() {
+        return this.type;
+    }
+
+    @Override
+    void update(Object value) {
+        this.value = this.type.cast(value);
+    }
+
+    @Override
+    boolean isEquivalent(ConfigHandle other) {
+        return other instanceof ConfigKey && ((ConfigKey<?>) other).type == this.type;
+    }
+}
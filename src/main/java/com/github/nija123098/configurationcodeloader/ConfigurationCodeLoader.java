@@ -1,10 +1,36 @@
 package com.github.nija123098.configurationcodeloader;
 
 import com.github.nija123098.configurationcodeloader.reader.ConfigurationReader;
+import com.github.nija123098.configurationcodeloader.util.AsyncListener;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationMetrics;
 import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
 import com.github.nija123098.configurationcodeloader.util.Register;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Main class for the configuration code loader library.
@@ -12,34 +38,1022 @@ import java.util.function.Consumer;
  * Construct an instance with none or more {@link ConfigurationReader}s as sources for configuration.
  * Register listeners for updates to the configurations with {@link ConfigurationCodeLoader#registerListener(Consumer)}
  * to allow listening from all added {@link ConfigurationReader<C>} instances in a single call.
+ * <p>
+ * The loader also keeps a merged view of all values submitted by its readers
+ * which may be queried with {@link ConfigurationCodeLoader#getConfig(String)}
+ * and {@link ConfigurationCodeLoader#snapshot()} without locking.
+ * Every change makes a new {@link Generation}, an immutable view of all values numbered in order of change,
+ * which can be held with {@link ConfigurationCodeLoader#getGeneration()} to read several values consistently.
+ * <p>
+ * Listeners only interested in some configurations can subscribe to those names or a name pattern
+ * with {@link ConfigurationCodeLoader#registerListener(Set, Consumer)} or {@link ConfigurationCodeLoader#registerPatternListener(String, Consumer)},
+ * and are only notified with the part of the results they are subscribed to.
+ * <p>
+ * When more than one reader provides a configuration the value of the reader added last is used.
+ * Readers can be started, reloaded and stopped together in parallel with {@link ConfigurationCodeLoader#startAll()},
+ * {@link ConfigurationCodeLoader#reloadAll()} and {@link ConfigurationCodeLoader#stopAll()},
+ * which publish the changes of all readers as one {@link ConfigurationResults}.
+ * <p>
+ * Changed values can be validated and transformed once before any listener receives them,
+ * with {@link ConfigurationCodeLoader#registerValidator(String, Predicate)} and {@link ConfigurationCodeLoader#registerTransformer(String, Function)}.
+ * If any changed value is rejected none of the changes are published.
+ * <p>
+ * Frequently read configurations can be bound to a {@link ConfigHandle}, such as a {@link ConfigKey} or {@link IntConfig},
+ * which holds the current value so reading it does not look up the configuration by name.
  */
 public class ConfigurationCodeLoader<C> extends Register<ConfigurationResults<C>> {
     /**
-     * The instance to register as a listener so registration management
-     * for added {@link ConfigurationResults} is trivial.
+     * The daemon threads waiting for starts from a cache, shared by all loaders and reused once idle.
+     * The loader's executor is not used since the start waits for the readers to start on it.
+     */
+    private static final ExecutorService START_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "configuration-start");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The sources of configuration values in ascending order of precedence.
+     * <p>
+     * Sources of removed readers are kept so their last values remain.
+     * Guarded by {@link ConfigurationCodeLoader#writeLock}.
+     */
+    private final List<Source<C>> sources = new ArrayList<>();
+
+    /**
+     * The lock for changing configuration values, reading them does not require it.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * The names of configurations changed while a lifecycle action runs on all readers,
+     * null when none is running.
+     * Guarded by {@link ConfigurationCodeLoader#writeLock}.
+     */
+    private Set<String> batchNames;
+
+    /**
+     * The previous values of sources changed while a lifecycle action runs on all readers,
+     * restored if the changes are rejected, null when none is running.
+     * Guarded by {@link ConfigurationCodeLoader#writeLock}.
      */
-    private final Consumer<ConfigurationResults<C>> instanceListener = this::submit;
+    private List<Undo<C>> batchUndo;
 
+    /**
+     * The validators and transformers of changed values, replaced as a whole while holding {@link ConfigurationCodeLoader#writeLock}.
+     */
+    private volatile Pipeline<C> pipeline = Pipeline.empty();
+
+    /**
+     * The values as provided by sources, before transformation, of configurations with validators or transformers.
+     * Guarded by {@link ConfigurationCodeLoader#writeLock}.
+     */
+    private final Map<String, C> providedValues = new HashMap<>();
+
+    /**
+     * The executor to validate and transform changed values in parallel with, null to use the changing thread.
+     */
+    private volatile Executor pipelineExecutor;
+
+    /**
+     * The lock serializing lifecycle actions on all readers.
+     */
+    private final Object lifecycleLock = new Object();
+
+    /**
+     * The executor to run lifecycle actions on readers with.
+     */
+    private final Executor executor;
+
+    /**
+     * The cache to write the values to after each lifecycle action changing them, null if not caching.
+     */
+    private volatile SnapshotCache cache;
+
+    /**
+     * The start from a cache, null if none was made or the last failed, guarded by the write lock.
+     */
+    private CompletableFuture<Void> cachedStart;
+
+    /**
+     * The current merged configuration values, replaced as a whole on each change.
+     */
+    private volatile Generation<C> generation = Generation.initial();
+
+    /**
+     * The generations waiting to be delivered to listeners,
+     * added while holding {@link ConfigurationCodeLoader#writeLock} so they are in order of generation number.
+     * The initial generation marks a change which published nothing.
+     */
+    private final Queue<Generation<C>> undelivered = new ConcurrentLinkedQueue<>();
+
+    /**
+     * If a thread is delivering generations to listeners.
+     */
+    private final AtomicBoolean delivering = new AtomicBoolean();
+
+    /**
+     * The listeners of new generations.
+     */
+    private final GenerationRegister<C> generationListeners = new GenerationRegister<>();
+
+    /**
+     * The listeners subscribed to specific configuration names, replaced as a whole on registration changes.
+     */
+    private final AtomicReference<KeySubscriptions<C>> subscriptions = new AtomicReference<>(KeySubscriptions.empty());
+
+    /**
+     * The handles bound to configuration names, replaced as a whole when a handle is bound.
+     */
+    private final AtomicReference<Map<String, ConfigHandle[]>> handles = new AtomicReference<>(Collections.emptyMap());
+
+    /**
+     * Make a loader running lifecycle actions on readers with the {@link ForkJoinPool#commonPool()}.
+     */
     public ConfigurationCodeLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Make a loader running lifecycle actions on readers with the provided {@link Executor}.
+     *
+     * @param executor the executor to start, reload and stop readers with.
+     */
+    public ConfigurationCodeLoader(Executor executor) {
+        this.executor = executor;
     }
 
     /**
      * Add a {@link ConfigurationReader<C>} to add
      * listening results to this instance's own distirbution.
+     * <p>
+     * The values of readers added later take precedence over those of readers added earlier.
+     * A reader that was previously removed keeps its original precedence.
      *
      * @param reader the reader to add.
      */
     public void addConfigurationReader(ConfigurationReader<C> reader) {
-        reader.registerListener(this.instanceListener);
+        Source<C> source;
+        synchronized (this.writeLock) {
+            source = this.findSource(reader);
+            if (source == null) {
+                source = new Source<>(reader, this);
+                this.sources.add(source);
+            } else if (source.added) {
+                return;
+            }
+            source.added = true;
+        }
+        reader.registerListener(source.listener);
     }
 
     /**
      * Remove a {@link ConfigurationReader<C>} to remove
      * listening results from this instance's own distirbution.
+     * <p>
+     * The values last provided by the reader remain.
      *
      * @param reader the reader to remove.
      */
     public void removeConfigurationReader(ConfigurationReader<C> reader) {
-        reader.deregisterListener(this.instanceListener);
+        Source<C> source;
+        synchronized (this.writeLock) {
+            source = this.findSource(reader);
+            if (source == null || !source.added) {
+                return;
+            }
+            source.added = false;
+        }
+        reader.deregisterListener(source.listener);
+    }
+
+    /**
+     * Start all added readers in parallel, waiting for all to finish
+     * before publishing their values as one {@link ConfigurationResults}.
+     *
+     * @see ConfigurationReader#startProviding()
+     */
+    public void startAll() {
+        this.runAll(ConfigurationReader::startProviding);
+    }
+
+    /**
+     * Publish the values cached from a previous run, then start all added readers in parallel on the executor.
+     * <p>
+     * The start is waited for on a shared daemon thread rather than the executor, so the executor may have as few as one thread.
+     * Only the first call starts the readers, later calls return the same future unless the start failed.
+     * <p>
+     * The cached values have a lower precedence than those of any reader,
+     * so once the readers have started only the configurations which differ from the cache are published.
+     * The cached values are then discarded, unsetting configurations no reader provides,
+     * and the cache is rewritten with the current values after this and each following lifecycle action that changes them.
+     * <p>
+     * The cached values must be of the type the readers provide.
+     *
+     * @param cache the cache to publish values from and write values to.
+     * @return a future completing once all readers have started and the cache is written.
+     * @see ConfigurationCodeLoader#startAll()
+     */
+    @SuppressWarnings("unchecked")// The cache only holds values previously provided by readers
+    public CompletableFuture<Void> startAll(SnapshotCache cache) {
+        Source<C> cached = new Source<>(null, this);
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        synchronized (this.writeLock) {
+            if (this.cachedStart != null) {
+                return this.cachedStart;
+            }
+            this.cachedStart = started;
+            this.sources.add(0, cached);
+        }
+        ConfigurationResults.Builder<C> values = new ConfigurationResults.Builder<>();
+        cache.read().forEach((name, value) -> values.set(name, (C) value));
+        try {
+            if (values.size() != 0) {
+                this.apply(cached, values.build());
+            }
+        } catch (RuntimeException e) {
+            this.retire(cached);
+            this.failStart(started, e);
+            throw e;
+        }
+        START_EXECUTOR.execute(() -> {
+            try {
+                try {
+                    this.startAll();
+                } finally {
+                    this.retire(cached);
+                }
+                this.cache = cache;
+                cache.write(this.generation.getValues());
+                started.complete(null);
+            } catch (Throwable e) {
+                this.failStart(started, e);
+            }
+        });
+        return started;
+    }
+
+    /**
+     * Complete a start from a cache exceptionally, allowing it to be tried again.
+     *
+     * @param started the future of the start.
+     * @param e       the cause of the failure.
+     */
+    private void failStart(CompletableFuture<Void> started, Throwable e) {
+        synchronized (this.writeLock) {
+            if (this.cachedStart == started) {
+                this.cachedStart = null;
+            }
+        }
+        started.completeExceptionally(e);
+    }
+
+    /**
+     * Reload all added readers in parallel, waiting for all to finish
+     * before publishing their changes as one {@link ConfigurationResults}.
+     *
+     * @see ConfigurationReader#reload()
+     */
+    public void reloadAll() {
+        this.runAll(ConfigurationReader::reload);
+    }
+
+    /**
+     * Stop all added readers in parallel, waiting for all to finish.
+     *
+     * @see ConfigurationReader#stopProviding()
+     */
+    public void stopAll() {
+        this.runAll(ConfigurationReader::stopProviding);
+    }
+
+    /**
+     * Add a validator of the values of a configuration.
+     * <p>
+     * Each changed value is validated once before it is transformed and published,
+     * if it is rejected or the validator throws none of the changes it was provided with are published,
+     * and the reader providing them receives a {@link ConfigurationCodeLoaderException}.
+     * The current value is validated immediately, and if invalid the validator is not added.
+     *
+     * @param name      the name of the configuration.
+     * @param validator the validator, returning false for invalid values.
+     * @throws ConfigurationCodeLoaderException if the current value is invalid.
+     */
+    public void registerValidator(String name, Predicate<? super C> validator) {
+        this.registerStage(name, pipeline -> pipeline.withValidator(name, validator));
+    }
+
+    /**
+     * Add a transformer of the values of a configuration, applied after any previously added transformer.
+     * <p>
+     * Each changed value is transformed once after it is validated, and all listeners,
+     * handles and generations receive the transformed value.
+     * If a transformer throws none of the changes it was provided with are published.
+     * The current value is transformed and published immediately.
+     * Transformers must not change configuration values.
+     *
+     * @param name        the name of the configuration.
+     * @param transformer the transformer, which must not return null.
+     * @throws ConfigurationCodeLoaderException if the current value fails to transform.
+     */
+    public void registerTransformer(String name, Function<? super C, ? extends C> transformer) {
+        this.registerStage(name, pipeline -> pipeline.withTransformer(name, transformer));
+    }
+
+    /**
+     * Set the executor to validate and transform changed values with,
+     * processing the values of different configurations in parallel.
+     * <p>
+     * Publishing waits for all values to be processed, so the executor must not be one
+     * whose threads may be waiting to change configuration values, such as the executor of this loader.
+     *
+     * @param executor the executor, null to process values on the thread publishing them.
+     */
+    public void setPipelineExecutor(Executor executor) {
+        this.pipelineExecutor = executor;
+    }
+
+    /**
+     * Add a listener which is notified on the provided {@link Executor} rather than the submitting thread.
+     * <p>
+     * Results submitted while a notification is pending are merged into a single {@link ConfigurationResults}.
+     *
+     * @param listener the listener to add.
+     * @param executor the executor to notify the listener on.
+     * @return the registered listener, to be used for deregistration.
+     * @see AsyncListener
+     */
+    public AsyncListener<ConfigurationResults<C>> registerListener(Consumer<ConfigurationResults<C>> listener, Executor executor) {
+        AsyncListener<ConfigurationResults<C>> asyncListener = new AsyncListener<>(listener, executor, ConfigurationResults::merge);
+        this.registerListener(asyncListener);
+        return asyncListener;
+    }
+
+    /**
+     * Add a listener which is only notified of changes to the provided configuration names.
+     * <p>
+     * The listener receives only the part of the results with those names
+     * and is not notified if none of them changed.
+     *
+     * @param names    the configuration names to listen for.
+     * @param listener the listener to add.
+     */
+    public void registerListener(Set<String> names, Consumer<ConfigurationResults<C>> listener) {
+        KeySubscriptions<C> current;
+        do {
+            current = this.subscriptions.get();
+        } while (!this.subscriptions.compareAndSet(current, current.withNames(names, listener)));
+    }
+
+    /**
+     * Add a listener which is only notified of changes to configurations with names matching a glob pattern,
+     * where {@code *} matches any number of characters and {@code ?} matches one character.
+     * <p>
+     * For example {@code db.pool.*} matches all configurations starting with {@code db.pool.}.
+     * The listener receives only the part of the results with matching names
+     * and is not notified if none of them changed.
+     *
+     * @param glob     the pattern of configuration names to listen for.
+     * @param listener the listener to add.
+     */
+    public void registerPatternListener(String glob, Consumer<ConfigurationResults<C>> listener) {
+        KeySubscriptions<C> current;
+        do {
+            current = this.subscriptions.get();
+        } while (!this.subscriptions.compareAndSet(current, current.withGlob(glob, listener)));
+    }
+
+    /**
+     * Remove a listener, including any subscriptions to configuration names or patterns.
+     *
+     * @param value the listener to remove.
+     */
+    @Override
+    public void deregisterListener(Consumer<ConfigurationResults<C>> value) {
+        super.deregisterListener(value);
+        KeySubscriptions<C> current, updated;
+        do {
+            current = this.subscriptions.get();
+            updated = current.without(value);
+        } while (current != updated && !this.subscriptions.compareAndSet(current, updated));
+    }
+
+    /**
+     * Bind a handle to a configuration of an object type.
+     * <p>
+     * Binding the same name and type again returns the same handle.
+     * Primitive types are not accepted since configuration values are objects,
+     * use {@link #intConfig(String, int)}, {@link #longConfig(String, long)} or {@link #booleanConfig(String, boolean)}
+     * to read values without boxing.
+     *
+     * @param name the name of the configuration.
+     * @param type the type of the configuration value.
+     * @param <T>  the type of the configuration value.
+     * @return the handle.
+     * @throws IllegalArgumentException if the type is primitive.
+     */
+    public <T> ConfigKey<T> configKey(String name, Class<T> type) {
+        if (type.isPrimitive()) {
+            throw new IllegalArgumentException("Configuration values can not be of primitive type " + type.getName() + ", use the boxed type instead");
+        }
+        return this.bind(new ConfigKey<>(name, type));
+    }
+
+    /**
+     * Bind a handle to a configuration of {@link Integer} values.
+     * <p>
+     * Binding the same name and default value again returns the same handle.
+     *
+     * @param name         the name of the configuration.
+     * @param defaultValue the value of the handle when the configuration is unset.
+     * @return the handle.
+     */
+    public IntConfig intConfig(String name, int defaultValue) {
+        return this.bind(new IntConfig(name, defaultValue));
+    }
+
+    /**
+     * Bind a handle to a configuration of {@link Long} values.
+     * <p>
+     * Binding the same name and default value again returns the same handle.
+     *
+     * @param name         the name of the configuration.
+     * @param defaultValue the value of the handle when the configuration is unset.
+     * @return the handle.
+     */
+    public LongConfig longConfig(String name, long defaultValue) {
+        return this.bind(new LongConfig(name, defaultValue));
+    }
+
+    /**
+     * Bind a handle to a configuration of {@link Boolean} values.
+     * <p>
+     * Binding the same name and default value again returns the same handle.
+     *
+     * @param name         the name of the configuration.
+     * @param defaultValue the value of the handle when the configuration is unset.
+     * @return the handle.
+     */
+    public BooleanConfig booleanConfig(String name, boolean defaultValue) {
+        return this.bind(new BooleanConfig(name, defaultValue));
+    }
+
+    /**
+     * Get the current value of a configuration.
+     *
+     * @param name the name of the configuration.
+     * @return the value of the configuration, empty if unset.
+     */
+    public Optional<C> getConfig(String name) {
+        return Optional.ofNullable(this.generation.getValues().get(name));
+    }
+
+    /**
+     * Get all currently set configuration values.
+     *
+     * @return an unmodifiable map of configuration names to their values.
+     */
+    public Map<String, C> snapshot() {
+        return this.generation.getValues();
+    }
+
+    /**
+     * Get the version of the current configuration values.
+     * <p>
+     * The version increases by one every time configuration values change.
+     *
+     * @return the current version.
+     * @see Generation#getNumber()
+     */
+    public long getVersion() {
+        return this.generation.getNumber();
+    }
+
+    /**
+     * Get the current generation of configuration values.
+     * <p>
+     * The generation does not change once returned, so all values read from it are consistent with each other.
+     *
+     * @return the current generation.
+     */
+    public Generation<C> getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Add a listener of new generations, notified with each generation after the listeners of changes.
+     * <p>
+     * Generations are delivered one at a time in order of {@link Generation#getNumber()}, including those made concurrently,
+     * though a generation may be delivered by a thread other than the one whose change made it.
+     *
+     * @param listener the listener to add.
+     */
+    public void registerGenerationListener(Consumer<Generation<C>> listener) {
+        this.generationListeners.registerListener(listener);
+    }
+
+    /**
+     * Remove a listener of new generations.
+     *
+     * @param listener the listener to remove.
+     */
+    public void deregisterGenerationListener(Consumer<Generation<C>> listener) {
+        this.generationListeners.deregisterListener(listener);
+    }
+
+    /**
+     * Record the results of a source, then publish the changes to the merged values
+     * unless a lifecycle action is running in which case they are published once it finishes.
+     *
+     * @param source  the source of the results.
+     * @param results the changed configurations of the source.
+     */
+    private void apply(Source<C> source, ConfigurationResults<C> results) {
+        Generation<C> generation;
+        synchronized (this.writeLock) {
+            Undo<C> undo = this.pipeline.isEmpty() && this.batchNames == null ? null : new Undo<>(source);
+            for (int i = 0; i < results.size(); i++) {
+                C value = results.getValue(i);
+                C previous = value != null ? source.values.put(results.getName(i), value) : source.values.remove(results.getName(i));
+                if (undo != null) {
+                    undo.previous.put(results.getName(i), previous);
+                }
+            }
+            if (this.batchNames != null) {
+                this.batchNames.addAll(results.keySet());
+                this.batchUndo.add(undo);
+                return;
+            }
+            try {
+                generation = this.publish(results.keySet());
+            } catch (RuntimeException e) {
+                if (undo != null) {
+                    undo.restore();
+                }
+                throw e;
+            }
+            this.undelivered.add(generation == null ? Generation.initial() : generation);
+        }
+        this.deliver();
+    }
+
+    /**
+     * Replace the pipeline and publish the configuration it was changed for,
+     * restoring the previous pipeline if the current value is rejected.
+     *
+     * @param name   the name of the configuration.
+     * @param change the change to the pipeline.
+     */
+    private void registerStage(String name, Function<Pipeline<C>, Pipeline<C>> change) {
+        synchronized (this.writeLock) {
+            Pipeline<C> previous = this.pipeline;
+            boolean provided = this.providedValues.containsKey(name);
+            C providedValue = this.providedValues.remove(name);// process the current value with the new stage
+            this.pipeline = change.apply(previous);
+            try {
+                this.enqueue(this.publish(Collections.singleton(name)));
+            } catch (RuntimeException e) {
+                this.pipeline = previous;
+                if (provided) {
+                    this.providedValues.put(name, providedValue);
+                }
+                throw e;
+            }
+        }
+        this.deliver();
+    }
+
+    /**
+     * Resolve the merged values of configurations, validate and transform the changed values,
+     * and make a new generation if any changed.
+     * <p>
+     * Must be called holding {@link ConfigurationCodeLoader#writeLock}.
+     *
+     * @param names the names of configurations which may have changed.
+     * @return the new generation, null if no value changed.
+     * @throws ConfigurationCodeLoaderException if any changed value is rejected, in which case nothing changes.
+     */
+    @SuppressWarnings("unchecked")// Values are only provided by readers of C and transformed to C
+    private Generation<C> publish(Collection<String> names) {
+        Generation<C> current = this.generation;
+        Pipeline<C> pipeline = this.pipeline;
+        String[] changedNames = new String[names.size()];
+        Object[] changedValues = new Object[changedNames.length];
+        int count = 0;
+        for (String name : names) {
+            C value = this.resolve(name);
+            if (Objects.equals(value, pipeline.hasStages(name) ? this.providedValues.get(name) : current.getValue(name))) {
+                continue;
+            }
+            changedNames[count] = name;
+            changedValues[count++] = value;
+        }
+        if (count == 0) {
+            return null;
+        }
+        if (!pipeline.isEmpty()) {
+            Object[] provided = Arrays.copyOf(changedValues, count);
+            pipeline.process(changedNames, changedValues, count, this.pipelineExecutor);
+            for (int i = 0; i < count; i++) {
+                if (!pipeline.hasStages(changedNames[i])) {
+                    continue;
+                }
+                if (provided[i] != null) {
+                    this.providedValues.put(changedNames[i], (C) provided[i]);
+                } else {
+                    this.providedValues.remove(changedNames[i]);
+                }
+            }
+        }
+        Map<String, C> values = null;
+        ConfigurationResults.Builder<C> changes = new ConfigurationResults.Builder<>(count);
+        for (int i = 0; i < count; i++) {
+            C value = (C) changedValues[i];
+            if (Objects.equals(value, current.getValue(changedNames[i]))) {
+                continue;// transformed to the published value
+            }
+            if (values == null) {
+                values = new HashMap<>(current.getValues());
+            }
+            if (value != null) {
+                values.put(changedNames[i], value);
+            } else {
+                values.remove(changedNames[i]);
+            }
+            changes.set(changedNames[i], value);
+        }
+        if (values == null) {
+            return null;
+        }
+        this.generation = new Generation<>(current.getNumber() + 1, Collections.unmodifiableMap(values), changes.build());
+        return this.generation;
+    }
+
+    /**
+     * Get the value of a configuration from the source with the highest precedence providing it.
+     * <p>
+     * Must be called holding {@link ConfigurationCodeLoader#writeLock}.
+     *
+     * @param name the name of the configuration.
+     * @return the value, null if unset by all sources.
+     */
+    private C resolve(String name) {
+        for (int i = this.sources.size() - 1; i >= 0; i--) {
+            C value = this.sources.get(i).values.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Queue a new generation for delivery to listeners.
+     * <p>
+     * Must be called holding {@link ConfigurationCodeLoader#writeLock}.
+     *
+     * @param generation the new generation, null if no value changed in which case nothing is queued.
+     */
+    private void enqueue(Generation<C> generation) {
+        if (generation != null) {
+            this.undelivered.add(generation);
+        }
+    }
+
+    /**
+     * Deliver queued generations to listeners until none are left.
+     * <p>
+     * Only one thread delivers at a time so listeners, handles and subscriptions receive generations in order,
+     * with generations queued while another thread delivers, including by its listeners, delivered by that thread.
+     * Exceptions thrown by listeners are thrown once no generations are left,
+     * the first with any further exceptions added as suppressed.
+     */
+    private void deliver() {
+        RuntimeException exception = null;
+        while (!this.undelivered.isEmpty() && this.delivering.compareAndSet(false, true)) {
+            try {
+                Generation<C> generation;
+                while ((generation = this.undelivered.poll()) != null) {
+                    try {
+                        this.notify(generation);
+                    } catch (RuntimeException e) {
+                        exception = Exceptions.combine(exception, e);
+                    }
+                }
+            } finally {
+                this.delivering.set(false);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Update bound handles, then submit the changes of a generation to listeners
+     * followed by the listeners subscribed to specific names and the listeners of generations.
+     *
+     * @param generation the new generation, the initial generation if no value changed in which case empty results are submitted.
+     */
+    private void notify(Generation<C> generation) {
+        ConfigurationResults<C> changes = generation.getChanges();
+        RuntimeException exception = null;
+        try {
+            this.updateHandles(changes);
+        } catch (RuntimeException e) {
+            exception = e;
+        }
+        try {
+            this.submit(changes);
+        } catch (RuntimeException e) {
+            exception = Exceptions.combine(exception, e);
+        }
+        try {
+            this.subscriptions.get().dispatch(changes, this.getMetrics(), this);
+        } catch (RuntimeException e) {
+            exception = Exceptions.combine(exception, e);
+        }
+        if (generation != Generation.<C>initial()) {
+            try {
+                this.generationListeners.publish(generation, this.getMetrics(), this);
+            } catch (RuntimeException e) {
+                exception = Exceptions.combine(exception, e);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Run an action on all added readers in parallel on the executor,
+     * publishing all changes they submit as one {@link ConfigurationResults} after all have finished,
+     * or nothing if no configuration value changed.
+     * <p>
+     * The first exception thrown by a reader is thrown once all have finished
+     * with any further exceptions added as suppressed.
+     *
+     * @param action the action to run on each reader.
+     */
+    private void runAll(Consumer<ConfigurationReader<C>> action) {
+        synchronized (this.lifecycleLock) {
+            List<ConfigurationReader<C>> readers = new ArrayList<>();
+            synchronized (this.writeLock) {
+                this.sources.stream().filter(source -> source.added).forEach(source -> readers.add(source.reader));
+                this.batchNames = new HashSet<>();
+                this.batchUndo = new ArrayList<>();
+            }
+            RuntimeException exception = null;
+            try {
+                CompletableFuture<?>[] futures = readers.stream()
+                        .map(reader -> CompletableFuture.runAsync(() -> action.accept(reader), this.executor))
+                        .toArray(CompletableFuture[]::new);
+                for (CompletableFuture<?> future : futures) {
+                    try {
+                        future.join();
+                    } catch (CompletionException e) {
+                        exception = Exceptions.combine(exception, e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e);
+                    }
+                }
+            } catch (RuntimeException e) {
+                exception = Exceptions.combine(exception, e);
+            }
+            Generation<C> generation = null;
+            synchronized (this.writeLock) {
+                try {
+                    generation = this.batchNames.isEmpty() ? null : this.publish(this.batchNames);
+                    this.enqueue(generation);
+                } catch (RuntimeException e) {
+                    for (int i = this.batchUndo.size() - 1; i >= 0; i--) {
+                        this.batchUndo.get(i).restore();
+                    }
+                    exception = Exceptions.combine(exception, e);
+                } finally {
+                    this.batchNames = null;
+                    this.batchUndo = null;
+                }
+            }
+            if (generation != null) {
+                try {
+                    this.deliver();
+                } catch (RuntimeException e) {
+                    exception = Exceptions.combine(exception, e);
+                }
+                SnapshotCache cache = this.cache;
+                if (cache != null) {
+                    try {
+                        cache.write(this.generation.getValues());
+                    } catch (RuntimeException e) {
+                        exception = Exceptions.combine(exception, e);
+                    }
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Remove a source which is not a reader, publishing the configurations only it provided as unset.
+     *
+     * @param source the source to remove.
+     */
+    private void retire(Source<C> source) {
+        synchronized (this.writeLock) {
+            int index = this.sources.indexOf(source);
+            if (index == -1) {
+                return;
+            }
+            this.sources.remove(index);
+            try {
+                this.enqueue(this.publish(source.values.keySet()));
+            } catch (RuntimeException e) {
+                this.sources.add(index, source);
+                throw e;
+            }
+        }
+        this.deliver();
+    }
+
+    /**
+     * Find the source of a reader.
+     * <p>
+     * Must be called holding {@link ConfigurationCodeLoader#writeLock}.
+     *
+     * @param reader the reader.
+     * @return the source, null if the reader was never added.
+     */
+    private Source<C> findSource(ConfigurationReader<C> reader) {
+        for (Source<C> source : this.sources) {
+            if (source.reader == reader) {
+                return source;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a handle to be updated and set it to the current value,
+     * or get an equivalent handle which is already bound instead.
+     *
+     * @param handle the handle to bind.
+     * @param <H>    the type of the handle.
+     * @return the handle, or the equivalent one already bound.
+     */
+    @SuppressWarnings("unchecked")
+    private <H extends ConfigHandle> H bind(H handle) {
+        Map<String, ConfigHandle[]> current, updated;
+        do {
+            current = this.handles.get();
+            ConfigHandle[] bound = current.get(handle.getName());
+            if (bound != null) {
+                for (ConfigHandle existing : bound) {
+                    if (existing.isEquivalent(handle)) {
+                        return (H) existing;// equivalent handles are of the same class
+                    }
+                }
+            }
+            updated = new HashMap<>(current);
+            bound = bound == null ? new ConfigHandle[1] : Arrays.copyOf(bound, bound.length + 1);
+            bound[bound.length - 1] = handle;
+            updated.put(handle.getName(), bound);
+        } while (!this.handles.compareAndSet(current, updated));
+        this.update(handle);
+        return handle;
+    }
+
+    /**
+     * Set a handle to the current value of its configuration.
+     * <p>
+     * The value is taken from the current generation rather than a delta
+     * so that concurrent updates settle on the latest value.
+     *
+     * @param handle the handle to update.
+     */
+    private void update(ConfigHandle handle) {
+        Object value = this.generation.getValues().get(handle.getName());
+        try {
+            handle.update(value);
+        } catch (ClassCastException e) {
+            throw new ConfigurationCodeLoaderException("Configuration \"" + handle.getName() + "\" has a value of type " + value.getClass().getName() + " not matching its handle", e);
+        }
+    }
+
+    /**
+     * Update the handles bound to the changed configurations.
+     *
+     * @param results the changed configurations.
+     */
+    private void updateHandles(ConfigurationResults<C> results) {
+        Map<String, ConfigHandle[]> handles = this.handles.get();
+        if (handles.isEmpty()) {
+            return;
+        }
+        RuntimeException exception = null;
+        for (int i = 0; i < results.size(); i++) {
+            ConfigHandle[] bound = handles.get(results.getName(i));
+            if (bound == null) {
+                continue;
+            }
+            for (ConfigHandle handle : bound) {
+                try {
+                    this.update(handle);
+                } catch (RuntimeException e) {
+                    exception = Exceptions.combine(exception, e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * A reader with the values it last provided, or the cached values published before readers start.
+     *
+     * @param <C> the base type of the configuration values.
+     */
+    private static final class Source<C> {
+        /**
+         * The reader, null for cached values.
+         */
+        private final ConfigurationReader<C> reader;
+
+        /**
+         * The listener registered with the reader.
+         */
+        private final Consumer<ConfigurationResults<C>> listener;
+
+        /**
+         * The values last provided by the reader, guarded by {@link ConfigurationCodeLoader#writeLock}.
+         */
+        private final Map<String, C> values = new HashMap<>();
+
+        /**
+         * If the reader is currently added, guarded by {@link ConfigurationCodeLoader#writeLock}.
+         */
+        private boolean added;
+
+        private Source(ConfigurationReader<C> reader, ConfigurationCodeLoader<C> loader) {
+            this.reader = reader;
+            this.listener = results -> loader.apply(this, results);
+        }
+    }
+
+    /**
+     * The values a source had before a change, for restoring them if the change is rejected.
+     *
+     * @param <C> the base type of the configuration values.
+     */
+    private static final class Undo<C> {
+        private final Source<C> source;
+
+        /**
+         * The previous values by name, null for configurations the source did not provide.
+         */
+        private final Map<String, C> previous = new HashMap<>();
+
+        private Undo(Source<C> source) {
+            this.source = source;
+        }
+
+        /**
+         * Restore the previous values, must be called holding {@link ConfigurationCodeLoader#writeLock}.
+         */
+        private void restore() {
+            this.previous.forEach((name, value) -> {
+                if (value != null) {
+                    this.source.values.put(name, value);
+                } else {
+                    this.source.values.remove(name);
+                }
+            });
+        }
+    }
+
+    /**
+     * The register of generation listeners, publishing through the protected submission.
+     *
+     * @param <C> the base type of the configuration values.
+     */
+    private static final class GenerationRegister<C> extends Register<Generation<C>> {
+        /**
+         * Deliver a generation to the listeners, recording the time of each to the metrics of the loader.
+         */
+        private void publish(Generation<C> generation, ConfigurationMetrics metrics, Object source) {
+            if (metrics == ConfigurationMetrics.NONE) {
+                this.submit(generation);
+                return;
+            }
+            this.forEachListener(listener -> {
+                long start = System.nanoTime();
+                try {
+                    listener.accept(generation);
+                } finally {
+                    metrics.recordDispatch(source, listener, System.nanoTime() - start);
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,27 @@
+package com.github.nija123098.configurationcodeloader;
+
+/**
+ * Helpers for exceptions thrown while visiting several listeners, readers or stages.
+ */
+final class Exceptions {
+    private Exceptions() {
+    }
+
+    /**
+     * Combine an exception with those thrown earlier while visiting several listeners, readers or stages,
+     * keeping the first exception with later ones added as suppressed.
+     *
+     * @param first the first exception, null if none occurred.
+     * @param later the later exception.
+     * @return the exception to throw.
+     */
+    static RuntimeException combine(RuntimeException first, RuntimeException later) {
+        if (first == null) {
+            return later;
+        }
+        if (first != later) {// an exception can not suppress itself
+            first.addSuppressed(later);
+        }
+        return first;
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.nija123098.configurationcodeloader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An immutable view of all configuration values of a {@link ConfigurationCodeLoader} at one point in time.
+ * <p>
+ * Each change to the values of a loader makes a new generation with a number one greater than the previous,
+ * along with the changes that produced it.
+ * Holding a generation keeps all of its values consistent with each other regardless of later changes,
+ * and a generation no longer referenced is reclaimed by garbage collection.
+ *
+ * @param <C> the base type of the configuration values.
+ */
+public final class Generation<C> {
+    private static final Generation<?> INITIAL = new Generation<>(0, Collections.emptyMap(), ConfigurationResults.empty());
+
+    private final long number;
+    private final Map<String, C> values;
+    private final ConfigurationResults<C> changes;
+
+    Generation(long number, Map<String, C> values, ConfigurationResults<C> changes) {
+        this.number = number;
+        this.values = values;
+        this.changes = changes;
+    }
+
+    /**
+     * Get the generation without any values which precedes all changes.
+     *
+     * @param <C> the base type of the configuration values.
+     * @return the initial generation.
+     */
+    @SuppressWarnings("unchecked")// Contains no values of any type
+    static <C> Generation<C> initial() {
+        return (Generation<C>) INITIAL;
+    }
+
+    /**
+     * Get the number of this generation, which increases by one with each change.
+     *
+     * @return the generation number.
+     */
+    public long getNumber() {
+        return this.number;
+    }
+
+    /**
+     * Get the value of a configuration in this generation.
+     *
+     * @param name the name of the configuration.
+     * @return the value of the configuration, empty if unset.
+     */
+    public Optional<C> getConfig(String name) {
+        return Optional.ofNullable(this.values.get(name));
+    }
+
+    /**
+     * Get the value of a configuration in this generation without wrapping it in an {@link Optional}.
+     *
+     * @param name the name of the configuration.
+     * @return the value of the configuration, null if unset.
+     */
+    public C getValue(String name) {
+        return this.values.get(name);
+    }
+
+    /**
+     * Get all set configuration values of this generation.
+     *
+     * @return an unmodifiable map of configuration names to their values.
+     */
+    public Map<String, C> getValues() {
+        return this.values;
+    }
+
+    /**
+     * Get the changes from the previous generation which produced this one.
+     *
+     * @return the changed configurations.
+     */
+    public ConfigurationResults<C> getChanges() {
+        return this.changes;
+    }
+
+    @Override
+    public String toString() {
+        return "Generation(" + this.number + ")";
+    }
+}
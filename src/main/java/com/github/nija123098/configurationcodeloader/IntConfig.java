@@ -0,0 +1,44 @@
+package com.github.nija123098.configurationcodeloader;
+
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link ConfigHandle} for a configuration of {@link Integer} values which is read without boxing.
+ */
+public final class IntConfig extends ConfigHandle implements IntSupplier {
+    /**
+     * The value when the configuration is unset.
+     */
+    private final int defaultValue;
+
+    /**
+     * The current value, the default if unset.
+     */
+    private volatile int value;
+
+    IntConfig(String name, int defaultValue) {
+        super(name);
+        this.defaultValue = defaultValue;
+        this.value = defaultValue;
+    }
+
+    /**
+     * Get the current value of the configuration.
+     *
+     * @return the value, or the default if unset.
+     */
+    @Override
+    public int getAsInt() {
+        return this.value;
+    }
+
+    @Override
+    void update(Object value) {
+        this.value = value == null ? this.defaultValue : (Integer) value;
+    }
+
+    @Override
+    boolean isEquivalent(ConfigHandle other) {
+        return other instanceof IntConfig && ((IntConfig) other).defaultValue == this.defaultValue;
+    }
+}
@@ -0,0 +1,319 @@
+package com.github.nija123098.configurationcodeloader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationMetrics;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable index of listeners subscribed to specific configuration names or name patterns.
+ * <p>
+ * Listeners of exact names are indexed by name and listeners of {@code prefix*} globs by a trie of prefixes,
+ * so dispatch only visits listeners interested in a changed name.
+ * Listeners of other patterns are checked against every changed name.
+ *
+ * @param <C> the base type of the configuration values.
+ */
+final class KeySubscriptions<C> {
+    private static final KeySubscriptions<?> EMPTY = new KeySubscriptions<>(Collections.emptyMap(), Collections.emptyMap(), new Subscription<?>[0]);
+
+    /**
+     * The subscriptions of exact names, keyed by name.
+     */
+    private final Map<String, Subscription<C>[]> byName;
+
+    /**
+     * The subscriptions of {@code prefix*} globs, keyed by prefix.
+     */
+    private final Map<String, Subscription<C>[]> byPrefix;
+
+    /**
+     * The root of the trie of {@link KeySubscriptions#byPrefix}, null if there are no prefix subscriptions.
+     */
+    private final PrefixNode<C> prefixes;
+
+    /**
+     * The subscriptions of name patterns which are neither exact names nor prefixes.
+     */
+    private final Subscription<C>[] patterns;
+
+    @SuppressWarnings("unchecked")// Only Subscription<C> instances are ever stored
+    private KeySubscriptions(Map<String, Subscription<C>[]> byName, Map<String, Subscription<C>[]> byPrefix, Subscription<?>[] patterns) {
+        this.byName = byName;
+        this.byPrefix = byPrefix;
+        this.prefixes = index(byPrefix);
+        this.patterns = (Subscription<C>[]) patterns;
+    }
+
+    @SuppressWarnings("unchecked")// Contains no subscriptions of any type
+    static <C> KeySubscriptions<C> empty() {
+        return (KeySubscriptions<C>) EMPTY;
+    }
+
+    /**
+     * Make a matcher for a glob pattern where {@code *} matches any number of characters and {@code ?} matches one.
+     *
+     * @param glob the glob pattern.
+     * @return the matcher for configuration names.
+     */
+    private static Predicate<String> globMatcher(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (start < i) {
+                    regex.append(Pattern.quote(glob.substring(start, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+        }
+        if (start < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(start)));
+        }
+        Pattern pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        return name -> pattern.matcher(name).matches();
+    }
+
+    /**
+     * Get if there are no subscriptions.
+     *
+     * @return if there are no subscriptions.
+     */
+    boolean isEmpty() {
+        return this.byName.isEmpty() && this.byPrefix.isEmpty() && this.patterns.length == 0;
+    }
+
+    /**
+     * Make a copy with a listener subscribed to exact names.
+     *
+     * @param names    the names to subscribe to.
+     * @param listener the listener.
+     * @return the new subscriptions.
+     */
+    KeySubscriptions<C> withNames(Set<String> names, Consumer<ConfigurationResults<C>> listener) {
+        Subscription<C> subscription = new Subscription<>(listener, null);
+        Map<String, Subscription<C>[]> byName = new HashMap<>(this.byName);
+        names.forEach(name -> byName.put(name, append(byName.get(name), subscription)));
+        return new KeySubscriptions<>(byName, this.byPrefix, this.patterns);
+    }
+
+    /**
+     * Make a copy with a listener subscribed to names matching a glob pattern,
+     * where {@code *} matches any number of characters and {@code ?} matches one.
+     * <p>
+     * Globs without wildcards are subscribed as exact names and globs ending in their only {@code *} as prefixes,
+     * so only other globs are checked against every changed name.
+     *
+     * @param glob     the glob pattern.
+     * @param listener the listener.
+     * @return the new subscriptions.
+     */
+    KeySubscriptions<C> withGlob(String glob, Consumer<ConfigurationResults<C>> listener) {
+        int wildcard = glob.indexOf('*');
+        if (glob.indexOf('?') != -1 || wildcard != -1 && wildcard != glob.length() - 1) {
+            return this.withPattern(globMatcher(glob), listener);
+        }
+        if (wildcard == -1) {
+            return this.withNames(Collections.singleton(glob), listener);
+        }
+        String prefix = glob.substring(0, wildcard);
+        Map<String, Subscription<C>[]> byPrefix = new HashMap<>(this.byPrefix);
+        byPrefix.put(prefix, append(byPrefix.get(prefix), new Subscription<>(listener, null)));
+        return new KeySubscriptions<>(this.byName, byPrefix, this.patterns);
+    }
+
+    /**
+     * Make a copy with a listener subscribed to names matching a predicate.
+     *
+     * @param matcher  the predicate matching names to subscribe to.
+     * @param listener the listener.
+     * @return the new subscriptions.
+     */
+    KeySubscriptions<C> withPattern(Predicate<String> matcher, Consumer<ConfigurationResults<C>> listener) {
+        return new KeySubscriptions<>(this.byName, this.byPrefix, append(this.patterns, new Subscription<>(listener, matcher)));
+    }
+
+    /**
+     * Make a copy without any subscriptions of a listener.
+     *
+     * @param listener the listener to remove.
+     * @return the new subscriptions, or this instance if the listener was not subscribed.
+     */
+    KeySubscriptions<C> without(Consumer<ConfigurationResults<C>> listener) {
+        Map<String, Subscription<C>[]> byName = remove(this.byName, listener);
+        Map<String, Subscription<C>[]> byPrefix = remove(this.byPrefix, listener);
+        Subscription<C>[] patterns = remove(this.patterns, listener);
+        boolean changed = byName != this.byName || byPrefix != this.byPrefix || patterns.length != this.patterns.length;
+        return changed ? new KeySubscriptions<>(byName, byPrefix, patterns) : this;
+    }
+
+    /**
+     * Deliver to each subscribed listener the part of the results it is subscribed to,
+     * listeners without any subscribed names in the results are not notified.
+     * A listener subscribed more than once, such as to overlapping names and patterns,
+     * is notified once with every name any of its subscriptions match.
+     * <p>
+     * An exception thrown by one listener does not prevent delivery to the rest,
+     * the first exception is thrown after all listeners have been notified.
+     *
+     * @param results the results to deliver.
+     * @param metrics the metrics to record the time of each listener to.
+     * @param source  the source to record the timings for.
+     */
+    void dispatch(ConfigurationResults<C> results, ConfigurationMetrics metrics, Object source) {
+        if (this.isEmpty() || results.isEmpty()) {
+            return;
+        }
+        Map<Consumer<ConfigurationResults<C>>, ConfigurationResults.Builder<C>> slices = null;
+        for (int i = 0; i < results.size(); i++) {
+            String name = results.getName(i);
+            Subscription<C>[] subscriptions = this.byName.get(name);
+            if (subscriptions != null) {
+                for (Subscription<C> subscription : subscriptions) {
+                    slices = add(slices, subscription.listener, name, results.getValue(i));
+                }
+            }
+            for (PrefixNode<C> node = this.prefixes; node != null; ) {
+                if (node.subscriptions != null) {
+                    for (Subscription<C> subscription : node.subscriptions) {
+                        slices = add(slices, subscription.listener, name, results.getValue(i));
+                    }
+                }
+                int depth = node.depth;
+                node = depth < name.length() ? node.children.get(name.charAt(depth)) : null;
+            }
+            for (Subscription<C> subscription : this.patterns) {
+                if (subscription.matcher.test(name)) {
+                    slices = add(slices, subscription.listener, name, results.getValue(i));
+                }
+            }
+        }
+        if (slices == null) {
+            return;
+        }
+        boolean timed = metrics != ConfigurationMetrics.NONE;
+        RuntimeException exception = null;
+        for (Map.Entry<Consumer<ConfigurationResults<C>>, ConfigurationResults.Builder<C>> slice : slices.entrySet()) {
+            ConfigurationResults<C> sliced = slice.getValue().build();
+            long start = timed ? System.nanoTime() : 0;
+            try {
+                slice.getKey().accept(sliced);
+            } catch (RuntimeException e) {
+                exception = Exceptions.combine(exception, e);
+            }
+            if (timed) {
+                metrics.recordDispatch(source, slice.getKey(), System.nanoTime() - start);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private static <C> Map<Consumer<ConfigurationResults<C>>, ConfigurationResults.Builder<C>> add(Map<Consumer<ConfigurationResults<C>>, ConfigurationResults.Builder<C>> slices, Consumer<ConfigurationResults<C>> listener, String name, C value) {
+        if (slices == null) {
+            slices = new IdentityHashMap<>();
+        }
+        slices.computeIfAbsent(listener, l -> new ConfigurationResults.Builder<>(4)).set(name, value);
+        return slices;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})// Only Subscription<C> instances are ever stored
+    private static <C> Subscription<C>[] append(Subscription<C>[] subscriptions, Subscription<C> subscription) {
+        if (subscriptions == null) {
+            return new Subscription[]{subscription};
+        }
+        Subscription<C>[] appended = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        appended[subscriptions.length] = subscription;
+        return appended;
+    }
+
+    /**
+     * Remove the subscriptions of a listener from an index.
+     *
+     * @return the index without the listener, or the same index if the listener was not subscribed.
+     */
+    private static <C> Map<String, Subscription<C>[]> remove(Map<String, Subscription<C>[]> index, Consumer<ConfigurationResults<C>> listener) {
+        boolean changed = false;
+        Map<String, Subscription<C>[]> remaining = new HashMap<>(index.size() * 2);
+        for (Map.Entry<String, Subscription<C>[]> entry : index.entrySet()) {
+            Subscription<C>[] subscriptions = remove(entry.getValue(), listener);
+            changed |= subscriptions.length != entry.getValue().length;
+            if (subscriptions.length != 0) {
+                remaining.put(entry.getKey(), subscriptions);
+            }
+        }
+        return changed ? remaining : index;
+    }
+
+    /**
+     * Build the trie of prefix subscriptions.
+     *
+     * @return the root node, null if there are no prefix subscriptions.
+     */
+    private static <C> PrefixNode<C> index(Map<String, Subscription<C>[]> byPrefix) {
+        if (byPrefix.isEmpty()) {
+            return null;
+        }
+        PrefixNode<C> root = new PrefixNode<>(0);
+        for (Map.Entry<String, Subscription<C>[]> entry : byPrefix.entrySet()) {
+            PrefixNode<C> node = root;
+            for (int i = 0; i < entry.getKey().length(); i++) {
+                int depth = i + 1;
+                node = node.children.computeIfAbsent(entry.getKey().charAt(i), c -> new PrefixNode<>(depth));
+            }
+            node.subscriptions = entry.getValue();
+        }
+        return root;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})// Only Subscription<C> instances are ever stored
+    private static <C> Subscription<C>[] remove(Subscription<C>[] subscriptions, Consumer<ConfigurationResults<C>> listener) {
+        return Arrays.stream(subscriptions)
+                .filter(subscription -> !subscription.listener.equals(listener))
+                .toArray(Subscription[]::new);
+    }
+
+    /**
+     * A node of the trie of prefix subscriptions, only modified while the trie is built.
+     */
+    private static final class PrefixNode<C> {
+        /**
+         * The length of the prefix this node represents.
+         */
+        private final int depth;
+        private final Map<Character, PrefixNode<C>> children = new HashMap<>(4);
+
+        /**
+         * The subscriptions of the prefix this node represents, null if none.
+         */
+        private Subscription<C>[] subscriptions;
+
+        private PrefixNode(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * A listener with the predicate for the names it is subscribed to, null if subscribed by exact names or a prefix.
+     */
+    private static final class Subscription<C> {
+        private final Consumer<ConfigurationResults<C>> listener;
+        private final Predicate<String> matcher;
+
+        private Subscription(Consumer<ConfigurationResults<C>> listener, Predicate<String> matcher) {
+            this.listener = listener;
+            this.matcher = matcher;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.nija123098.configurationcodeloader;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link ConfigHandle} for a configuration of {@link Long} values which is read without boxing.
+ */
+public final class LongConfig extends ConfigHandle implements LongSupplier {
+    /**
+     * The value when the configuration is unset.
+     */
+    private final long defaultValue;
+
+    /**
+     * The current value, the default if unset.
+     */
+    private volatile long value;
+
+    LongConfig(String name, long defaultValue) {
+        super(name);
+        this.defaultValue = defaultValue;
+        this.value = defaultValue;
+    }
+
+    /**
+     * Get the current value of the configuration.
+     *
+     * @return the value, or the default if unset.
+     */
+    @Override
+    public long getAsLong() {
+        return this.value;
+    }
+
+    @Override
+    void update(Object value) {
+        this.value = value == null ? this.defaultValue : (Long) value;
+    }
+
+    @Override
+    boolean isEquivalent(ConfigHandle other) {
+        return other instanceof LongConfig && ((LongConfig) other).defaultValue == this.defaultValue;
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.nija123098.configurationcodeloader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An immutable index of the validators and transformers of configuration names.
+ * <p>
+ * A changed value is checked by all validators of its name, then passed through its transformers in registration order.
+ * Unset configurations are neither validated nor transformed.
+ *
+ * @param <C> the base type of the configuration values.
+ */
+final class Pipeline<C> {
+    private static final Pipeline<?> EMPTY = new Pipeline<>(Collections.emptyMap());
+
+    /**
+     * The stages of each name with any.
+     */
+    private final Map<String, Stage<C>> stages;
+
+    private Pipeline(Map<String, Stage<C>> stages) {
+        this.stages = stages;
+    }
+
+    @SuppressWarnings("unchecked")// Contains no stages of any type
+    static <C> Pipeline<C> empty() {
+        return (Pipeline<C>) EMPTY;
+    }
+
+    /**
+     * Get if no name has any stages.
+     *
+     * @return if the pipeline is empty.
+     */
+    boolean isEmpty() {
+        return this.stages.isEmpty();
+    }
+
+    /**
+     * Get if a name has any stages, in which case its published value may differ from its provided value.
+     *
+     * @param name the configuration name.
+     * @return if the name has stages.
+     */
+    boolean hasStages(String name) {
+        return this.stages.containsKey(name);
+    }
+
+    /**
+     * Make a pipeline with a validator added.
+     *
+     * @param name      the configuration name.
+     * @param validator the validator.
+     * @return the new pipeline.
+     */
+    Pipeline<C> withValidator(String name, Predicate<? super C> validator) {
+        Stage<C> stage = this.stages.getOrDefault(name, Stage.empty());
+        return this.with(name, new Stage<>(append(stage.validators, validator), stage.transformers));
+    }
+
+    /**
+     * Make a pipeline with a transformer added after the existing transformers of the name.
+     *
+     * @param name        the configuration name.
+     * @param transformer the transformer.
+     * @return the new pipeline.
+     */
+    Pipeline<C> withTransformer(String name, Function<? super C, ? extends C> transformer) {
+        Stage<C> stage = this.stages.getOrDefault(name, Stage.empty());
+        return this.with(name, new Stage<>(stage.validators, append(stage.transformers, transformer)));
+    }
+
+    /**
+     * Validate and transform changed values, in parallel on the executor if there is more than one to process.
+     * <p>
+     * All values are processed before any failure is thrown,
+     * so the exception describes every rejected value with later ones added as suppressed.
+     *
+     * @param names    the names of the changed configurations.
+     * @param values   the provided values, replaced by the values to publish.
+     * @param count    the number of changed configurations.
+     * @param executor the executor to process values in parallel with, null to process them on the calling thread.
+     * @throws ConfigurationCodeLoaderException if any value is invalid or fails to transform.
+     */
+    void process(String[] names, Object[] values, int count, Executor executor) {
+        int[] staged = new int[count];
+        int stagedCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] != null && this.stages.containsKey(names[i])) {
+                staged[stagedCount++] = i;
+            }
+        }
+        RuntimeException exception = null;
+        if (executor == null || stagedCount < 2) {
+            for (int s = 0; s < stagedCount; s++) {
+                int i = staged[s];
+                try {
+                    values[i] = this.process(names[i], values[i]);
+                } catch (RuntimeException e) {
+                    exception = Exceptions.combine(exception, e);
+                }
+            }
+        } else {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[stagedCount];
+            for (int s = 0; s < stagedCount; s++) {
+                int i = staged[s];
+                Object value = values[i];
+                futures[s] = CompletableFuture.supplyAsync(() -> this.process(names[i], value), executor);
+            }
+            for (int s = 0; s < stagedCount; s++) {
+                try {
+                    values[staged[s]] = futures[s].join();
+                } catch (CompletionException e) {
+                    exception = Exceptions.combine(exception, e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Validate and transform a value.
+     */
+    @SuppressWarnings("unchecked")// Values are only provided by readers of C
+    private Object process(String name, Object value) {
+        Stage<C> stage = this.stages.get(name);
+        C result = (C) value;
+        for (Predicate<? super C> validator : stage.validators) {
+            boolean valid;
+            try {
+                valid = validator.test(result);
+            } catch (RuntimeException e) {
+                throw new ConfigurationCodeLoaderException("Unable to validate configuration \"" + name + "\"", e);
+            }
+            if (!valid) {
+                throw new ConfigurationCodeLoaderException("Invalid value for configuration \"" + name + "\": " + result);
+            }
+        }
+        for (Function<? super C, ? extends C> transformer : stage.transformers) {
+            try {
+                result = transformer.apply(result);
+            } catch (RuntimeException e) {
+                throw new ConfigurationCodeLoaderException("Unable to transform configuration \"" + name + "\"", e);
+            }
+            if (result == null) {
+                throw new ConfigurationCodeLoaderException("Transformer of configuration \"" + name + "\" produced null");
+            }
+        }
+        return result;
+    }
+
+    private Pipeline<C> with(String name, Stage<C> stage) {
+        Map<String, Stage<C>> stages = new HashMap<>(this.stages);
+        stages.put(name, stage);
+        return new Pipeline<>(stages);
+    }
+
+    private static <T> T[] append(T[] array, T element) {
+        T[] appended = Arrays.copyOf(array, array.length + 1);
+        appended[array.length] = element;
+        return appended;
+    }
+
+    /**
+     * The validators and transformers of a name.
+     *
+     * @param <C> the base type of the configuration values.
+     */
+    private static final class Stage<C> {
+        @SuppressWarnings({"rawtypes", "unchecked"})// Arrays of generic types can not be created
+        private static final Stage<?> EMPTY = new Stage<>(new Predicate[0], new Function[0]);
+
+        private final Predicate<? super C>[] validators;
+        private final Function<? super C, ? extends C>[] transformers;
+
+        private Stage(Predicate<? super C>[] validators, Function<? super C, ? extends C>[] transformers) {
+            this.validators = validators;
+            this.transformers = transformers;
+        }
+
+        @SuppressWarnings("unchecked")// Contains no stages of any type
+        private static <C> Stage<C> empty() {
+            return (Stage<C>) EMPTY;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.nija123098.configurationcodeloader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A file holding the last published configuration values of a {@link ConfigurationCodeLoader}
+ * so they can be published at startup before any reader has read.
+ * <p>
+ * Only values which can be serialized are written, others are left out of the cache.
+ * The file is replaced atomically on write, and is read through a memory mapping with its checksum verified,
+ * so a missing, partial or corrupt file reads as empty rather than as wrong values.
+ * Values are deserialized with Java serialization, so the file must only be writable by trusted users.
+ *
+ * @see ConfigurationCodeLoader#startAll(SnapshotCache)
+ */
+public final class SnapshotCache {
+    /**
+     * The first bytes of every cache file.
+     */
+    private static final int MAGIC = 0x43434C53;
+
+    /**
+     * The version of the file format, files of other versions are ignored.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The size of the magic, format version, payload length and checksum preceding the payload.
+     */
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+    private final Path file;
+
+    /**
+     * Cache configuration values in a file.
+     *
+     * @param file the file to cache values in.
+     */
+    public SnapshotCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the file values are cached in.
+     *
+     * @return the file.
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * Read the cached values.
+     * <p>
+     * Values which can no longer be deserialized, such as those of changed classes, are left out.
+     *
+     * @return the cached values, empty if there is no valid cache file.
+     */
+    public Map<String, Object> read() {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return Collections.emptyMap();
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return Collections.emptyMap();
+        } catch (IOException e) {
+            throw new ConfigurationCodeLoaderException("Unable to read snapshot cache: \"" + this.file + "\"", e);
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            return Collections.emptyMap();
+        }
+        int length = buffer.getInt();
+        long checksum = buffer.getLong();
+        if (length != buffer.remaining()) {
+            return Collections.emptyMap();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != checksum) {
+            return Collections.emptyMap();
+        }
+        try {
+            int count = buffer.getInt();
+            Map<String, Object> values = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String name = new String(slice(buffer, buffer.getInt()), StandardCharsets.UTF_8);
+                byte[] value = slice(buffer, buffer.getInt());
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(value))) {
+                    values.put(name, in.readObject());
+                } catch (IOException | ClassNotFoundException e) {
+                    // the class of the value changed or is gone, a reader will provide it
+                }
+            }
+            return values;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Replace the cached values.
+     * <p>
+     * The values are written to a temporary file which then replaces the cache file,
+     * so readers never observe a partially written file.
+     *
+     * @param values the values to cache, values which can not be serialized are left out.
+     */
+    public void write(Map<String, ?> values) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            Map<String, byte[]> serialized = new HashMap<>(values.size() * 2);
+            values.forEach((name, value) -> {
+                byte[] bytes = serialize(value);
+                if (bytes != null) {
+                    serialized.put(name, bytes);
+                }
+            });
+            out.writeInt(serialized.size());
+            for (Map.Entry<String, byte[]> entry : serialized.entrySet()) {
+                byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new ConfigurationCodeLoaderException("Unable to write snapshot cache: \"" + this.file + "\"", e);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).putInt(bytes.length).putLong(crc.getValue());
+        ((Buffer) header).flip();// call the Buffer method, ByteBuffer only overrides it from Java 9
+        Path directory = this.file.toAbsolutePath().getParent();
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, this.file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer body = ByteBuffer.wrap(bytes);
+                while (header.hasRemaining() || body.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{header, body});
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new ConfigurationCodeLoaderException("Unable to write snapshot cache: \"" + this.file + "\"", e);
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    // left for the file system to clean up
+                }
+            }
+        }
+    }
+
+    /**
+     * Serialize a value.
+     *
+     * @param value the value to serialize.
+     * @return the serialized bytes, null if the value can not be serialized.
+     */
+    private static byte[] serialize(Object value) {
+        if (!(value instanceof Serializable)) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            return null;// a field of the value is not serializable
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Copy the next bytes of a buffer.
+     */
+    private static byte[] slice(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Length out of bounds: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
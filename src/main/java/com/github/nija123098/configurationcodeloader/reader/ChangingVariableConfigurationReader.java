@@ -1,5 +1,6 @@
 package com.github.nija123098.configurationcodeloader.reader;
 
+import com.github.nija123098.configurationcodeloader.util.ConfigurationMetrics;
 import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
 
 import java.lang.reflect.Field;
@@ -19,6 +20,11 @@ public class ChangingVariableConfigurationReader<C> extends ReloadRequiredConfig
     private final Supplier<Class<?>> classSupplier;
     private final Predicate<Field> fieldFilter;
 
+    /**
+     * The previous values of the fields for taking the difference on reload.
+     */
+    private final FieldDiff<C> diff = new FieldDiff<>();
+
     /**
      * Read changing class definitions, as provided by the {@link Supplier<Class<?>>}.
      *
@@ -28,7 +34,7 @@ public class ChangingVariableConfigurationReader<C> extends ReloadRequiredConfig
      */
     protected ChangingVariableConfigurationReader(Supplier<Class<?>> classSupplier, Predicate<Field> fieldFilter) {
         this.classSupplier = classSupplier;
-        this.fieldFilter = fieldFilter;
+        this.fieldFilter = fieldFilter == null ? VariableConfigurationReader.DEFAULT_FIELD_FILTER : fieldFilter;
     }
 
     /**
@@ -43,6 +49,41 @@ public class ChangingVariableConfigurationReader<C> extends ReloadRequiredConfig
 
     @Override
     public ConfigurationResults<C> readValues() {
-        return new VariableConfigurationReader<C>(this.classSupplier.get(), null, this.fieldFilter).readValues();
+        return FieldAccessors.of(this.loadClass(), this.fieldFilter).read(null);
+    }
+
+    @Override
+    protected ConfigurationResults<C> readInitialValues() {
+        return this.diff.readAll(FieldAccessors.of(this.loadClass(), this.fieldFilter), null);
+    }
+
+    @Override
+    protected ConfigurationResults<C> readChangedValues() {
+        return this.diff.readChanges(FieldAccessors.of(this.loadClass(), this.fieldFilter), null);
+    }
+
+    /**
+     * Get the previous values of the fields, for subclasses which read values other than through the class.
+     *
+     * @return the previous values.
+     */
+    FieldDiff<C> getDiff() {
+        return this.diff;
+    }
+
+    /**
+     * Get the class to read from the supplier, recording the time taken if metrics are enabled.
+     *
+     * @return the class to read.
+     */
+    private Class<?> loadClass() {
+        ConfigurationMetrics metrics = this.getMetrics();
+        if (metrics == ConfigurationMetrics.NONE) {
+            return this.classSupplier.get();
+        }
+        long start = System.nanoTime();
+        Class<?> clazz = this.classSupplier.get();
+        metrics.recordClassLoad(this, System.nanoTime() - start);
+        return clazz;
     }
 }
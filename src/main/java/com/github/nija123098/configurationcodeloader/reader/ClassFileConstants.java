@@ -0,0 +1,246 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import java.lang.reflect.Modifier;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the values of constant fields from the bytes of a class file without loading the class.
+ * <p>
+ * A {@code static final} field of a primitive or {@link String} type initialized with a compile time constant
+ * has its value in a {@code ConstantValue} attribute, so it can be read from the class file directly.
+ * Any other field is initialized by running the class initializer, which requires loading the class.
+ * Fields are only read if they are public fields of a public class, as required to read them reflectively,
+ * so loading the class reports any that are not accessible.
+ */
+final class ClassFileConstants {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_STATIC_FINAL = Modifier.STATIC | Modifier.FINAL;
+
+    private static final byte CONSTANT_UTF8 = 1;
+    private static final byte CONSTANT_INTEGER = 3;
+    private static final byte CONSTANT_FLOAT = 4;
+    private static final byte CONSTANT_LONG = 5;
+    private static final byte CONSTANT_DOUBLE = 6;
+    private static final byte CONSTANT_STRING = 8;
+
+    private ClassFileConstants() {
+    }
+
+    /**
+     * Read the values of the fields with an annotation if all of them are constants.
+     *
+     * @param classFile  the bytes of the class file.
+     * @param annotation the descriptor of the annotation marking the fields to read.
+     * @return the values of the annotated fields by field name,
+     * or null if any annotated field is not a public constant of a public class and requires loading the class.
+     * @throws IllegalArgumentException if the bytes are not a valid class file.
+     */
+    static Map<String, Object> readConstants(ByteBuffer classFile, String annotation) {
+        ByteBuffer buffer = classFile.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a class file");
+            }
+            buffer.getInt();// minor and major version
+            Object[] pool = readConstantPool(buffer);
+            boolean publicClass = (u2(buffer) & Modifier.PUBLIC) != 0;
+            skip(buffer, 4);// this class and super class
+            skip(buffer, 2 * u2(buffer));// interfaces
+            Map<String, Object> values = new HashMap<>();
+            for (int fields = u2(buffer); fields > 0; fields--) {
+                int access = u2(buffer);
+                String name = (String) pool[u2(buffer)];
+                String descriptor = (String) pool[u2(buffer)];
+                Object constant = null;
+                boolean annotated = false;
+                for (int attributes = u2(buffer); attributes > 0; attributes--) {
+                    String attribute = (String) pool[u2(buffer)];
+                    int length = buffer.getInt();
+                    int end = buffer.position() + length;
+                    if ("ConstantValue".equals(attribute)) {
+                        constant = pool[u2(buffer)];
+                    } else if ("RuntimeVisibleAnnotations".equals(attribute)) {
+                        for (int annotations = u2(buffer); annotations > 0 && !annotated; annotations--) {
+                            annotated = annotation.equals(pool[u2(buffer)]);
+                            skipElementValuePairs(buffer);
+                        }
+                    }
+                    ((Buffer) buffer).position(end);
+                }
+                if (!annotated) {
+                    continue;
+                }
+                if (!publicClass || (access & Modifier.PUBLIC) == 0) {
+                    return null;// not accessible reflectively either
+                }
+                Object value = (access & ACC_STATIC_FINAL) == ACC_STATIC_FINAL && constant != null ? toValue(descriptor, constant) : null;
+                if (value == null) {
+                    return null;
+                }
+                values.put(name, value);
+            }
+            return values;
+        } catch (RuntimeException e) {
+            throw e instanceof IllegalArgumentException ? e : new IllegalArgumentException("Malformed class file", e);
+        }
+    }
+
+    /**
+     * Read the constant pool, keeping UTF8 entries as strings and numeric and string constants as their values.
+     */
+    private static Object[] readConstantPool(ByteBuffer buffer) {
+        int count = u2(buffer);
+        Object[] pool = new Object[count];
+        int[] strings = new int[count];
+        for (int i = 1; i < count; i++) {
+            byte tag = buffer.get();
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    pool[i] = readModifiedUtf8(buffer, u2(buffer));
+                    break;
+                case CONSTANT_INTEGER:
+                    pool[i] = buffer.getInt();
+                    break;
+                case CONSTANT_FLOAT:
+                    pool[i] = buffer.getFloat();
+                    break;
+                case CONSTANT_LONG:
+                    pool[i++] = buffer.getLong();// takes two entries
+                    break;
+                case CONSTANT_DOUBLE:
+                    pool[i++] = buffer.getDouble();// takes two entries
+                    break;
+                case CONSTANT_STRING:
+                    strings[i] = u2(buffer);
+                    break;
+                case 7:// class
+                case 16:// method type
+                case 19:// module
+                case 20:// package
+                    skip(buffer, 2);
+                    break;
+                case 15:// method handle
+                    skip(buffer, 3);
+                    break;
+                case 9:// field reference
+                case 10:// method reference
+                case 11:// interface method reference
+                case 12:// name and type
+                case 17:// dynamic
+                case 18:// invoke dynamic
+                    skip(buffer, 4);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag: " + tag);
+            }
+        }
+        for (int i = 1; i < count; i++) {
+            if (strings[i] != 0) {
+                pool[i] = new StringConstant((String) pool[strings[i]]);
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Convert a constant to the boxed value of a field of a descriptor.
+     *
+     * @return the value, null if the field's type can not hold a constant.
+     */
+    private static Object toValue(String descriptor, Object constant) {
+        switch (descriptor) {
+            case "Z":
+                return (Integer) constant != 0;
+            case "B":
+                return (byte) (int) (Integer) constant;
+            case "C":
+                return (char) (int) (Integer) constant;
+            case "S":
+                return (short) (int) (Integer) constant;
+            case "I":
+                return (Integer) constant;
+            case "J":
+                return (Long) constant;
+            case "F":
+                return (Float) constant;
+            case "D":
+                return (Double) constant;
+            case "Ljava/lang/String;":
+                return ((StringConstant) constant).value;
+            default:
+                return null;
+        }
+    }
+
+    private static void skipElementValuePairs(ByteBuffer buffer) {
+        for (int pairs = u2(buffer); pairs > 0; pairs--) {
+            skip(buffer, 2);// name
+            skipElementValue(buffer);
+        }
+    }
+
+    private static void skipElementValue(ByteBuffer buffer) {
+        char tag = (char) buffer.get();
+        switch (tag) {
+            case 'e':// enum type and constant name
+                skip(buffer, 4);
+                break;
+            case '@':
+                skip(buffer, 2);// type
+                skipElementValuePairs(buffer);
+                break;
+            case '[':
+                for (int values = u2(buffer); values > 0; values--) {
+                    skipElementValue(buffer);
+                }
+                break;
+            default:// constants and classes
+                skip(buffer, 2);
+        }
+    }
+
+    /**
+     * Decode the modified UTF-8 used by class files.
+     */
+    private static String readModifiedUtf8(ByteBuffer buffer, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        int end = buffer.position() + length;
+        while (buffer.position() < end) {
+            int b = buffer.get() & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) ((b & 0x1F) << 6 | buffer.get() & 0x3F);
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[count++] = (char) ((b & 0x0F) << 12 | (buffer.get() & 0x3F) << 6 | buffer.get() & 0x3F);
+            } else {
+                throw new IllegalArgumentException("Malformed modified UTF-8");
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static int u2(ByteBuffer buffer) {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    private static void skip(ByteBuffer buffer, int bytes) {
+        ((Buffer) buffer).position(buffer.position() + bytes);
+    }
+
+    /**
+     * A string constant, distinguished from the UTF8 entries holding names and descriptors.
+     */
+    private static final class StringConstant {
+        private final String value;
+
+        private StringConstant(String value) {
+            this.value = value;
+        }
+    }
+}
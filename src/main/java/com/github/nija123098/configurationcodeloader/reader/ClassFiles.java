@@ -0,0 +1,107 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Utilities for locating and fingerprinting class files on the file system.
+ * <p>
+ * A fingerprint combines the length and CRC32 of a file's contents.
+ */
+final class ClassFiles {
+    /**
+     * The fingerprint of a class file which does not exist.
+     * <p>
+     * Never equal to the fingerprint of an existing file as those are never negative.
+     */
+    static final long MISSING = -1;
+
+    /**
+     * The size of the buffer to read class files through.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    private ClassFiles() {
+    }
+
+    /**
+     * Get the directory a file {@link URL} points to.
+     *
+     * @param url the URL of a directory of class files.
+     * @return the path of the directory.
+     */
+    static Path toDirectory(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            throw new IllegalArgumentException("Only file URLs can be read from the file system: \"" + url + "\"");
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid file URL: \"" + url + "\"", e);
+        }
+    }
+
+    /**
+     * Get the file to fingerprint to detect changes to a class loaded from a {@link URL}
+     * the same way a {@link java.net.URLClassLoader} would find it.
+     *
+     * @param url       the URL of a class directory or jar.
+     * @param className the binary name of the class.
+     * @return the class file for a directory, the jar file for a jar, or null if the URL is not a file URL.
+     */
+    static Path locate(URL url, String className) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        Path path = toDirectory(url);
+        return url.getPath().endsWith("/") ? locate(path, className) : path;
+    }
+
+    /**
+     * Get the path of the class file for a class in a class directory.
+     *
+     * @param directory the root directory of the class files.
+     * @param className the binary name of the class.
+     * @return the path of the class file.
+     */
+    static Path locate(Path directory, String className) {
+        return directory.resolve(className.replace('.', '/') + ".class");
+    }
+
+    /**
+     * Compute a fingerprint of the contents of a file.
+     *
+     * @param file the file to fingerprint.
+     * @return the fingerprint, or {@link ClassFiles#MISSING} if the file does not exist.
+     */
+    static long fingerprint(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long length = 0;
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                length += read;
+                ((Buffer) buffer).flip();// call the Buffer methods, ByteBuffer only overrides them from Java 9
+                crc.update(buffer);
+                ((Buffer) buffer).clear();
+            }
+            return (length & Integer.MAX_VALUE) << 32 | crc.getValue();
+        } catch (NoSuchFileException e) {
+            return MISSING;
+        } catch (IOException e) {
+            throw new ConfigurationCodeLoaderException("Unable to read class file: \"" + file + "\"", e);
+        }
+    }
+}
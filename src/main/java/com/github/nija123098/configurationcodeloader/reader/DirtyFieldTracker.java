@@ -0,0 +1,66 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Records which fields of a configuration object were written since they were last read,
+ * so a tracking {@link VariableConfigurationReader} only reads those fields on reload.
+ * <p>
+ * The object marks a field dirty after each write to it, typically in its setters:
+ * <pre>{@code
+ * public void setTimeout(int timeout) {
+ *     this.timeout = timeout;
+ *     this.tracker.markDirty("timeout");
+ * }
+ * }</pre>
+ * Writes which are not marked are not published until the reader is restarted.
+ *
+ * @see VariableConfigurationReader#VariableConfigurationReader(Class, Object, Predicate, DirtyFieldTracker)
+ */
+public final class DirtyFieldTracker {
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Mark a field as written, to be read on the next reload.
+     *
+     * @param fieldName the name of the field written.
+     */
+    public void markDirty(String fieldName) {
+        this.dirty.add(fieldName);
+    }
+
+    /**
+     * Check if any field was written since the last reload.
+     *
+     * @return if any field is dirty.
+     */
+    public boolean isDirty() {
+        return !this.dirty.isEmpty();
+    }
+
+    /**
+     * Remove each dirty field and pass it to an action.
+     * <p>
+     * A field is removed before the action reads it, so a write during the read is marked again.
+     *
+     * @param action the action to perform on the name of each dirty field.
+     */
+    void drain(Consumer<String> action) {
+        for (Iterator<String> iterator = this.dirty.iterator(); iterator.hasNext(); ) {
+            String fieldName = iterator.next();
+            iterator.remove();
+            action.accept(fieldName);
+        }
+    }
+
+    /**
+     * Forget all dirty fields, as when all fields are about to be read.
+     */
+    void clear() {
+        this.dirty.clear();
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * The resolved getters for the fields of a class accepted by a field filter.
+ * <p>
+ * Instances are cached per {@link Class} and filter through a {@link ClassValue},
+ * which does not prevent the class from being unloaded,
+ * so field discovery and filtering only occur the first time a class is read.
+ * Filters are held weakly, so the accessors of a filter made for a single reader are dropped along with the reader.
+ */
+final class FieldAccessors {
+    /**
+     * The type all getters are adapted to, taking the source object and returning the value.
+     */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * The default field filter limited to static fields, shared so readers of only static fields share accessors.
+     */
+    private static final Predicate<Field> STATIC_DEFAULT_FIELD_FILTER = field -> Modifier.isStatic(field.getModifiers()) && VariableConfigurationReader.DEFAULT_FIELD_FILTER.test(field);
+
+    /**
+     * The cache of accessors for each class, weakly keyed by the filter used to find them.
+     */
+    private static final ClassValue<Map<Predicate<Field>, FieldAccessors>> CACHE = new ClassValue<Map<Predicate<Field>, FieldAccessors>>() {
+        @Override
+        protected Map<Predicate<Field>, FieldAccessors> computeValue(Class<?> type) {
+            return Collections.synchronizedMap(new WeakHashMap<>(2));
+        }
+    };
+
+    /**
+     * The fields being read, in the same order as their getters.
+     */
+    private final Field[] fields;
+
+    /**
+     * The getters of the fields, of the type {@link FieldAccessors#GETTER_TYPE}.
+     */
+    private final MethodHandle[] getters;
+
+    /**
+     * The indices of the fields by name.
+     */
+    private final Map<String, Integer> indices;
+
+    private FieldAccessors(Class<?> clazz, Predicate<Field> fieldFilter) {
+        this.fields = Stream.of(clazz.getDeclaredFields()).filter(fieldFilter).toArray(Field[]::new);
+        this.getters = new MethodHandle[this.fields.length];
+        this.indices = new HashMap<>(this.fields.length * 2);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < this.fields.length; i++) {
+            Field field = this.fields[i];
+            this.indices.put(field.getName(), i);
+            try {
+                MethodHandle getter = lookup.unreflectGetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                }
+                this.getters[i] = getter.asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new ConfigurationCodeLoaderException("Configuration variable not accessible: \"" + field.getDeclaringClass() + "#" + field.getName() + "\"", e);
+            }
+        }
+    }
+
+    /**
+     * Get the accessors for the fields of the class accepted by the filter.
+     *
+     * @param clazz       the class to read fields of.
+     * @param fieldFilter the filter to decide if a field should be read.
+     * @return the accessors, cached if previously resolved.
+     */
+    static FieldAccessors of(Class<?> clazz, Predicate<Field> fieldFilter) {
+        Map<Predicate<Field>, FieldAccessors> accessors = CACHE.get(clazz);
+        FieldAccessors cached = accessors.get(fieldFilter);// avoid allocating the capturing lambda when cached
+        return cached != null ? cached : accessors.computeIfAbsent(fieldFilter, filter -> new FieldAccessors(clazz, filter));
+    }
+
+    /**
+     * Limit a filter to static fields, returning the same filter for the default filter so its accessors stay cached.
+     *
+     * @param fieldFilter the filter to limit.
+     * @return the filter accepting only static fields accepted by the provided filter.
+     */
+    static Predicate<Field> staticFields(Predicate<Field> fieldFilter) {
+        if (fieldFilter == VariableConfigurationReader.DEFAULT_FIELD_FILTER) {
+            return STATIC_DEFAULT_FIELD_FILTER;
+        }
+        return field -> Modifier.isStatic(field.getModifiers()) && fieldFilter.test(field);
+    }
+
+    /**
+     * Get the number of fields read.
+     *
+     * @return the number of fields.
+     */
+    int size() {
+        return this.fields.length;
+    }
+
+    /**
+     * Get the field at the index.
+     *
+     * @param index the index of the field.
+     * @return the field.
+     */
+    Field getField(int index) {
+        return this.fields[index];
+    }
+
+    /**
+     * Get the index of a field.
+     *
+     * @param name the name of the field.
+     * @return the index of the field, -1 if it is not read.
+     */
+    int indexOf(String name) {
+        Integer index = this.indices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Read the value of the field at the index.
+     *
+     * @param index        the index of the field.
+     * @param sourceObject the object to read member fields from, null for static fields.
+     * @return the value of the field.
+     */
+    Object get(int index, Object sourceObject) {
+        try {
+            return (Object) this.getters[index].invokeExact(sourceObject);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ConfigurationCodeLoaderException("Unable to read configuration variable: \"" + this.fields[index].getDeclaringClass() + "#" + this.fields[index].getName() + "\"", e);
+        }
+    }
+
+    /**
+     * Read the values of all fields.
+     *
+     * @param sourceObject the object to read member fields from, null for static fields.
+     * @param <C>          the base type of the values.
+     * @return the values keyed by field name.
+     */
+    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
+    <C> ConfigurationResults<C> read(Object sourceObject) {
+        ConfigurationResults.Builder<C> builder = new ConfigurationResults.Builder<>(this.fields.length);
+        for (int i = 0; i < this.fields.length; i++) {
+            builder.set(this.fields[i].getName(), (C) this.get(i, sourceObject));
+        }
+        return builder.build();
+    }
+}
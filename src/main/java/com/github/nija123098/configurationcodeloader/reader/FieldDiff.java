@@ -0,0 +1,205 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tracks the previous values of fields read through {@link FieldAccessors}
+ * in an array indexed the same as the accessors' fields.
+ * <p>
+ * While the accessors stay the same, as when reading the same class repeatedly,
+ * values are compared in place and results are only allocated for changed fields,
+ * with the shared empty {@link ConfigurationResults} returned when nothing changed.
+ * Values read by name rather than through accessors, such as constants read without loading their class
+ * or the leaves of nested configuration, are compared by name.
+ *
+ * @param <C> the base type of the configuration values.
+ */
+final class FieldDiff<C> {
+    /**
+     * The accessors the previous values were read with,
+     * null before the first read or if they were read by name.
+     */
+    private FieldAccessors accessors;
+
+    /**
+     * The names of the fields of the previous values.
+     */
+    private String[] names;
+
+    /**
+     * The previous values, indexed by the accessors' fields.
+     */
+    private Object[] values;
+
+    /**
+     * Read all values and record them as the previous values.
+     *
+     * @param accessors    the accessors to read with.
+     * @param sourceObject the object to read member fields from, null for static fields.
+     * @return all values.
+     */
+    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
+    ConfigurationResults<C> readAll(FieldAccessors accessors, Object sourceObject) {
+        String[] names = new String[accessors.size()];
+        Object[] values = new Object[names.length];
+        ConfigurationResults.Builder<C> results = new ConfigurationResults.Builder<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            names[i] = accessors.getField(i).getName();
+            values[i] = accessors.get(i, sourceObject);
+            results.set(names[i], (C) values[i]);
+        }
+        this.accessors = accessors;
+        this.names = names;
+        this.values = values;
+        return results.build();
+    }
+
+    /**
+     * Record values read by name as the previous values.
+     *
+     * @param values the values by name.
+     * @return all values.
+     */
+    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
+    ConfigurationResults<C> readAll(Map<String, ?> values) {
+        ConfigurationResults.Builder<C> results = new ConfigurationResults.Builder<>(values.size());
+        values.forEach((name, value) -> results.set(name, (C) value));
+        this.record(values);
+        return results.build();
+    }
+
+    /**
+     * Compare values read by name to the previous values,
+     * recording them as the previous values.
+     *
+     * @param values the values by name.
+     * @return the values that changed, including unset values for names no longer present.
+     */
+    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
+    ConfigurationResults<C> readChanges(Map<String, ?> values) {
+        Map<String, Object> previous = this.previous();
+        ConfigurationResults.Builder<C> changes = new ConfigurationResults.Builder<>();
+        values.forEach((name, value) -> {
+            if (!previous.containsKey(name) || !Objects.equals(value, previous.remove(name))) {
+                changes.set(name, (C) value);
+            }
+        });
+        previous.keySet().forEach(changes::unset);
+        this.record(values);
+        return changes.size() == 0 ? ConfigurationResults.empty() : changes.build();
+    }
+
+    /**
+     * Read all values and compare them to the previous values, recording them as the previous values.
+     *
+     * @param accessors    the accessors to read with.
+     * @param sourceObject the object to read member fields from, null for static fields.
+     * @return the values that changed.
+     */
+    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
+    ConfigurationResults<C> readChanges(FieldAccessors accessors, Object sourceObject) {
+        if (accessors != this.accessors) {
+            return this.remap(accessors, sourceObject);
+        }
+        ConfigurationResults.Builder<C> changes = null;
+        for (int i = 0; i < this.values.length; i++) {
+            Object value = accessors.get(i, sourceObject);
+            if (Objects.equals(value, this.values[i])) {
+                continue;
+            }
+            this.values[i] = value;
+            if (changes == null) {
+                changes = new ConfigurationResults.Builder<>();
+            }
+            changes.set(accessors.getField(i).getName(), (C) value);
+        }
+        return changes == null ? ConfigurationResults.empty() : changes.build();
+    }
+
+    /**
+     * Read only the fields marked dirty and compare them to their previous values,
+     * recording them as the previous values.
+     *
+     * @param accessors    the accessors to read with.
+     * @param sourceObject the object to read member fields from, null for static fields.
+     * @param tracker      the tracker of the fields written since the previous read.
+     * @return the values that changed.
+     */
+    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
+    ConfigurationResults<C> readDirty(FieldAccessors accessors, Object sourceObject, DirtyFieldTracker tracker) {
+        if (accessors != this.accessors) {
+            tracker.clear();
+            return this.remap(accessors, sourceObject);
+        }
+        if (!tracker.isDirty()) {
+            return ConfigurationResults.empty();
+        }
+        ConfigurationResults.Builder<C> changes = new ConfigurationResults.Builder<>();
+        tracker.drain(name -> {
+            int i = accessors.indexOf(name);
+            if (i == -1) {
+                return;// not a configuration field
+            }
+            Object value = accessors.get(i, sourceObject);
+            if (!Objects.equals(value, this.values[i])) {
+                this.values[i] = value;
+                changes.set(name, (C) value);
+            }
+        });
+        return changes.size() == 0 ? ConfigurationResults.empty() : changes.build();
+    }
+
+    /**
+     * Compare values read with different accessors than the previous ones by field name.
+     *
+     * @param accessors    the accessors to read with.
+     * @param sourceObject the object to read member fields from, null for static fields.
+     * @return the values that changed, including unset values for fields no longer present.
+     */
+    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
+    private ConfigurationResults<C> remap(FieldAccessors accessors, Object sourceObject) {
+        Map<String, Object> previous = this.previous();
+        String[] names = new String[accessors.size()];
+        Object[] values = new Object[names.length];
+        ConfigurationResults.Builder<C> changes = new ConfigurationResults.Builder<>();
+        for (int i = 0; i < values.length; i++) {
+            names[i] = accessors.getField(i).getName();
+            values[i] = accessors.get(i, sourceObject);
+            if (!previous.containsKey(names[i]) || !Objects.equals(values[i], previous.remove(names[i]))) {
+                changes.set(names[i], (C) values[i]);
+            }
+        }
+        previous.keySet().forEach(changes::unset);
+        this.accessors = accessors;
+        this.names = names;
+        this.values = values;
+        return changes.build();
+    }
+
+    /**
+     * Get the previous values by field name.
+     */
+    private Map<String, Object> previous() {
+        Map<String, Object> previous = new HashMap<>(this.values == null ? 1 : this.values.length * 2);
+        for (int i = 0; this.values != null && i < this.values.length; i++) {
+            previous.put(this.names[i], this.values[i]);
+        }
+        return previous;
+    }
+
+    /**
+     * Record values read by name as the previous values.
+     */
+    private void record(Map<String, ?> values) {
+        this.accessors = null;
+        this.names = values.keySet().toArray(new String[0]);
+        this.values = new Object[this.names.length];
+        for (int i = 0; i < this.names.length; i++) {
+            this.values[i] = values.get(this.names[i]);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Reads the fields of a class and of the configuration nested in it as leaves keyed by dotted paths.
+ * <p>
+ * A field whose value is an object with fields accepted by the filter is a branch,
+ * read as the fields of that object prefixed with the field's name, such as {@code db.pool.maxSize}.
+ * When reading static fields the static nested classes with accepted static fields are branches too,
+ * prefixed with their simple name starting in lower case.
+ * Values of JDK types, arrays and enums are always leaves, as are objects already being read higher in the tree.
+ */
+final class FieldTree {
+    private final Predicate<Field> fieldFilter;
+
+    /**
+     * The filter limited to static fields, kept so the accessors of nested classes are cached.
+     */
+    private final Predicate<Field> staticFieldFilter;
+
+    /**
+     * Read trees of fields accepted by a filter.
+     *
+     * @param fieldFilter the filter to decide if a field should be read.
+     */
+    FieldTree(Predicate<Field> fieldFilter) {
+        this.fieldFilter = fieldFilter;
+        this.staticFieldFilter = FieldAccessors.staticFields(fieldFilter);
+    }
+
+    /**
+     * Read the leaves of the tree of a class.
+     *
+     * @param clazz        the class to read fields of.
+     * @param sourceObject the object to read member fields from, null for static fields.
+     * @return the leaf values by dotted path.
+     */
+    Map<String, Object> read(Class<?> clazz, Object sourceObject) {
+        Map<String, Object> leaves = new HashMap<>();
+        Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.read(FieldAccessors.of(clazz, this.fieldFilter), clazz, sourceObject, "", leaves, path);
+        return leaves;
+    }
+
+    private void read(FieldAccessors accessors, Class<?> clazz, Object sourceObject, String prefix, Map<String, Object> leaves, Set<Object> path) {
+        for (int i = 0; i < accessors.size(); i++) {
+            String name = prefix + accessors.getField(i).getName();
+            Object value = accessors.get(i, sourceObject);
+            FieldAccessors branch = value == null ? null : this.branch(value.getClass(), this.fieldFilter);
+            if (branch != null && path.add(value)) {
+                this.read(branch, value.getClass(), value, name + ".", leaves, path);
+                path.remove(value);
+            } else {
+                leaves.put(name, value);
+            }
+        }
+        if (sourceObject != null) {
+            return;
+        }
+        for (Class<?> nested : clazz.getDeclaredClasses()) {
+            FieldAccessors branch = Modifier.isStatic(nested.getModifiers()) ? this.branch(nested, this.staticFieldFilter) : null;
+            if (branch != null) {
+                String simpleName = nested.getSimpleName();
+                String name = prefix + Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+                this.read(branch, nested, null, name + ".", leaves, path);
+            }
+        }
+    }
+
+    /**
+     * Get the accessors of a class if it is a branch of the tree.
+     *
+     * @return the accessors, null if the class is read as a leaf.
+     */
+    private FieldAccessors branch(Class<?> clazz, Predicate<Field> fieldFilter) {
+        if (clazz.isArray() || clazz.isEnum() || clazz.isPrimitive() || clazz.getName().startsWith("java.")) {
+            return null;
+        }
+        FieldAccessors accessors = FieldAccessors.of(clazz, fieldFilter);
+        return accessors.size() == 0 ? null : accessors;
+    }
+}
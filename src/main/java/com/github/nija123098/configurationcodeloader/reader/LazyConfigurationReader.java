@@ -0,0 +1,110 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationMetrics;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+
+import java.lang.reflect.Field;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ConfigurationReader} providing {@link LazyValue}s for static fields of a class
+ * instead of reading the fields.
+ * <p>
+ * A field is only read, and its class initialized, when a listener or getter requests its value.
+ * Changes are detected by the class provided on reload rather than the field values:
+ * if the same class is provided nothing changed and no field is read,
+ * and if a different class is provided, such as after its class file changed,
+ * every field is provided as a new value without reading any of them.
+ * Fields of a class which does not change are read at most once,
+ * so later assignments to them are not observed.
+ *
+ * @param <C> the base type of the deferred values.
+ *            Only guaranteed as long as the {@link Class} configured as the source and {@link Predicate<Field>}
+ *            only results in fields who's variable values only are this type.
+ * @see URLClassLoaderGenerations#newLazyReader(String, Predicate)
+ */
+public class LazyConfigurationReader<C> extends ReloadRequiredConfigurationReader<LazyValue<C>> {
+    private final Supplier<Class<?>> classSupplier;
+    private final Predicate<Field> fieldFilter;
+
+    /**
+     * The accessors values were last provided for, null before the first read.
+     */
+    private FieldAccessors accessors;
+
+    /**
+     * Provide the static fields of a class annotated with {@link VariableConfigurationReader.Configuration}.
+     *
+     * @param clazz the class to read.
+     */
+    public LazyConfigurationReader(Class<?> clazz) {
+        this(() -> clazz, null);
+    }
+
+    /**
+     * Provide the static fields of changing class definitions, as provided by the {@link Supplier<Class<?>>}.
+     *
+     * @param classSupplier a {@link Supplier<Class>} to provide the class to read,
+     *                      which should provide the same class until it changes and should not initialize it.
+     * @param fieldFilter   the filter to decide if a field should be used to provide configuration data,
+     *                      member fields are never used.
+     */
+    public LazyConfigurationReader(Supplier<Class<?>> classSupplier, Predicate<Field> fieldFilter) {
+        Predicate<Field> filter = fieldFilter == null ? VariableConfigurationReader.DEFAULT_FIELD_FILTER : fieldFilter;
+        this.classSupplier = classSupplier;
+        this.fieldFilter = FieldAccessors.staticFields(filter);
+    }
+
+    @Override
+    public ConfigurationResults<LazyValue<C>> readValues() {
+        return lazyValues(FieldAccessors.of(this.loadClass(), this.fieldFilter));
+    }
+
+    @Override
+    protected ConfigurationResults<LazyValue<C>> readInitialValues() {
+        this.accessors = FieldAccessors.of(this.loadClass(), this.fieldFilter);
+        return lazyValues(this.accessors);
+    }
+
+    @Override
+    protected ConfigurationResults<LazyValue<C>> readChangedValues() {
+        FieldAccessors accessors = FieldAccessors.of(this.loadClass(), this.fieldFilter);
+        if (accessors == this.accessors) {
+            return ConfigurationResults.empty();
+        }
+        ConfigurationResults.Builder<LazyValue<C>> changes = new ConfigurationResults.Builder<>(accessors.size());
+        for (int i = 0; this.accessors != null && i < this.accessors.size(); i++) {
+            changes.unset(this.accessors.getField(i).getName());// replaced below for fields still present
+        }
+        for (int i = 0; i < accessors.size(); i++) {
+            changes.set(accessors.getField(i).getName(), new LazyValue<>(accessors, i));
+        }
+        this.accessors = accessors;
+        return changes.build();
+    }
+
+    private static <C> ConfigurationResults<LazyValue<C>> lazyValues(FieldAccessors accessors) {
+        ConfigurationResults.Builder<LazyValue<C>> results = new ConfigurationResults.Builder<>(accessors.size());
+        for (int i = 0; i < accessors.size(); i++) {
+            results.set(accessors.getField(i).getName(), new LazyValue<>(accessors, i));
+        }
+        return results.build();
+    }
+
+    /**
+     * Get the class to read from the supplier, recording the time taken if metrics are enabled.
+     *
+     * @return the class to read.
+     */
+    private Class<?> loadClass() {
+        ConfigurationMetrics metrics = this.getMetrics();
+        if (metrics == ConfigurationMetrics.NONE) {
+            return this.classSupplier.get();
+        }
+        long start = System.nanoTime();
+        Class<?> clazz = this.classSupplier.get();
+        metrics.recordClassLoad(this, System.nanoTime() - start);
+        return clazz;
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import java.util.function.Supplier;
+
+/**
+ * A deferred configuration value read from a field the first time it is requested.
+ * <p>
+ * Reading a static field initializes its class, so the class of a {@link LazyConfigurationReader}
+ * is only initialized once the first of its values is requested.
+ * The value is read once and kept, later requests return the same value.
+ * <p>
+ * Two instances are equal if they read the same field of the same loaded class,
+ * so a reloaded class which did not change produces values equal to the previous ones without reading them.
+ *
+ * @param <C> the type of the value.
+ */
+public final class LazyValue<C> implements Supplier<C> {
+    /**
+     * The value held before the field is read.
+     */
+    private static final Object UNREAD = new Object();
+
+    private final FieldAccessors accessors;
+    private final int index;
+
+    /**
+     * The value of the field, {@link LazyValue#UNREAD} until read.
+     */
+    private volatile Object value = UNREAD;
+
+    LazyValue(FieldAccessors accessors, int index) {
+        this.accessors = accessors;
+        this.index = index;
+    }
+
+    /**
+     * Get the value, reading the field if not yet read.
+     *
+     * @return the value of the field.
+     */
+    @Override
+    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
+    public C get() {
+        Object value = this.value;
+        if (value == UNREAD) {
+            synchronized (this) {
+                value = this.value;
+                if (value == UNREAD) {
+                    value = this.accessors.get(this.index, null);
+                    this.value = value;
+                }
+            }
+        }
+        return (C) value;
+    }
+
+    /**
+     * Get if the field was read.
+     *
+     * @return if the value was requested before.
+     */
+    public boolean isRead() {
+        return this.value != UNREAD;
+    }
+
+    /**
+     * Get the name of the field the value is read from.
+     *
+     * @return the field name.
+     */
+    public String getName() {
+        return this.accessors.getField(this.index).getName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof LazyValue)) {
+            return false;
+        }
+        LazyValue<?> other = (LazyValue<?>) o;
+        return this.accessors == other.accessors && this.index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this.accessors) * 31 + this.index;
+    }
+
+    @Override
+    public String toString() {
+        return this.isRead() ? String.valueOf(this.value) : "LazyValue(" + this.getName() + ")";
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+
+import java.lang.reflect.Field;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ConfigurationReader} instance for reading configuration values from fields of a class
+ * and from the configuration nested in them, keyed by dotted paths such as {@code db.pool.maxSize}.
+ * <p>
+ * Fields holding objects with their own configuration fields, and static nested classes
+ * with static configuration fields, are read field by field rather than as a single value.
+ * On reload only the leaves which changed are provided,
+ * so listeners of patterns such as {@code db.pool.*} are only notified of actual changes in that branch.
+ *
+ * @param <C> the base type of any variables produced by this class.
+ *            Only guaranteed as long as the {@link Class} configured as the source and {@link Predicate<Field>}
+ *            only results in leaf fields who's variable values only are this type.
+ */
+public class NestedVariableConfigurationReader<C> extends ReloadRequiredConfigurationReader<C> {
+    /**
+     * The object to read member fields of, null if reading static fields.
+     */
+    private final Object sourceObject;
+
+    /**
+     * The class to read fields of.
+     */
+    private final Class<?> clazz;
+
+    private final FieldTree tree;
+
+    /**
+     * The previous values of the leaves for taking the difference on reload.
+     */
+    private final FieldDiff<C> diff = new FieldDiff<>();
+
+    /**
+     * Read configuration data from the static fields of the provided {@link Class} and its nested classes
+     * using the {@link VariableConfigurationReader#DEFAULT_FIELD_FILTER}.
+     *
+     * @param clazz the class to read configuration data from.
+     */
+    public NestedVariableConfigurationReader(Class<?> clazz) {
+        this(clazz, null);
+    }
+
+    /**
+     * Read configuration data from the provided object and the objects nested in it
+     * using the {@link VariableConfigurationReader#DEFAULT_FIELD_FILTER}.
+     *
+     * @param clazz        the class to read configuration data from.
+     * @param sourceObject the object to get associated values from member fields.
+     * @param <S>          the type of the provided class.
+     */
+    public <S> NestedVariableConfigurationReader(Class<S> clazz, S sourceObject) {
+        this(clazz, sourceObject, null);
+    }
+
+    /**
+     * Read configuration data from the provided object and the objects nested in it
+     * using the provided {@link Predicate<Field>} to filter which fields should provide configuration data.
+     *
+     * @param clazz        the class to read configuration data from.
+     * @param sourceObject the object to get associated values from member fields.
+     * @param fieldFilter  the filter to decide if a field should be used to provide configuration data.
+     * @param <S>          the type of the provided class.
+     */
+    public <S> NestedVariableConfigurationReader(Class<S> clazz, S sourceObject, Predicate<Field> fieldFilter) {
+        this.sourceObject = sourceObject;
+        this.clazz = clazz;
+        this.tree = new FieldTree(fieldFilter == null ? VariableConfigurationReader.DEFAULT_FIELD_FILTER : fieldFilter);
+    }
+
+    @Override
+    public ConfigurationResults<C> readValues() {
+        return new FieldDiff<C>().readAll(this.tree.read(this.clazz, this.sourceObject));
+    }
+
+    @Override
+    protected ConfigurationResults<C> readInitialValues() {
+        return this.diff.readAll(this.tree.read(this.clazz, this.sourceObject));
+    }
+
+    @Override
+    protected ConfigurationResults<C> readChangedValues() {
+        return this.diff.readChanges(this.tree.read(this.clazz, this.sourceObject));
+    }
+}
@@ -1,9 +1,17 @@
 package com.github.nija123098.configurationcodeloader.reader;
 
+import com.github.nija123098.configurationcodeloader.util.ConfigurationMetrics;
 import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link ConfigurationReader} for taking the difference between the current and a new reading
@@ -16,43 +24,261 @@ public abstract class ReloadRequiredConfigurationReader<C> extends Configuration
      * The configuration values of the previous read
      * in order to determine the difference between the previous and a new read.
      */
-    private final ConfigurationResults<C> configurations = new ConfigurationResults<>();
+    private final Map<String, Optional<C>> configurations = new HashMap<>();
 
     /**
-     * If this instance is running.
+     * Incremented by each start and stop, so it is odd while started.
+     * Reads which began in an earlier epoch are discarded rather than committed.
+     * Only changed while holding the monitor of this instance.
      */
-    private volatile boolean started = false;
+    private volatile long epoch;
+
+    /**
+     * Serializes reads, as reads keep the previous values to take the difference from.
+     * Only other reads wait for it, starting and stopping never wait for a read.
+     */
+    private final ReentrantLock readLock = new ReentrantLock();
+
+    /**
+     * The changes committed by reads which have not been published to listeners yet,
+     * tagged with the epoch they were committed in.
+     */
+    private final AtomicReference<Commit<C>> committed = new AtomicReference<>(new Commit<>(0, ConfigurationResults.empty(), false));
+
+    /**
+     * If a thread is publishing committed changes to listeners.
+     */
+    private final AtomicBoolean publishing = new AtomicBoolean();
+
+    /**
+     * The scheduler of requested reloads, null if reloads are not scheduled.
+     */
+    private volatile ReloadScheduler scheduler;
 
     @Override
-    public synchronized void startProviding() {
-        if (!this.started) {
-            this.started = true;
-            this.submit(this.readValues());
+    public void startProviding() {
+        long epoch;
+        synchronized (this) {
+            if (this.isStarted()) {
+                return;
+            }
+            epoch = this.advanceEpoch();
+        }
+        this.read(epoch, true);
+        synchronized (this) {
+            ReloadScheduler scheduler = this.scheduler;
+            if (scheduler != null && this.epoch == epoch) {
+                scheduler.startPolling();
+            }
+        }
+    }
+
+    /**
+     * Schedule reloads requested through {@link ReloadRequiredConfigurationReader#requestReload()}.
+     * <p>
+     * Requests made within the debounce window of the first are collapsed into a single reload,
+     * reloads start at least the minimum interval apart,
+     * and while started a reload is requested every poll interval if one is set.
+     *
+     * @param executor          the executor to run reloads and polling on.
+     * @param debounceMillis    the time to wait after the first request before reloading.
+     * @param minIntervalMillis the minimum time between the start of reloads, limiting the rate of reloads.
+     * @param pollMillis        the interval to request reloads at while started, 0 to not poll.
+     */
+    public synchronized void scheduleReloads(ScheduledExecutorService executor, long debounceMillis, long minIntervalMillis, long pollMillis) {
+        if (this.scheduler != null) {
+            this.scheduler.stopPolling();
+        }
+        this.scheduler = new ReloadScheduler(this::reload, executor, debounceMillis, minIntervalMillis, pollMillis);
+        if (this.isStarted()) {
+            this.scheduler.startPolling();
         }
     }
 
+    /**
+     * Request a reload, which with scheduled reloads is collapsed with other requests
+     * and runs on the scheduling executor, otherwise it runs immediately.
+     * <p>
+     * All requests made before a reload starts are served by that reload and share its future.
+     *
+     * @return a future completing once a reload started after this request has finished.
+     * @see ReloadRequiredConfigurationReader#scheduleReloads(ScheduledExecutorService, long, long, long)
+     */
+    public CompletableFuture<Void> requestReload() {
+        ReloadScheduler scheduler = this.scheduler;
+        if (scheduler != null) {
+            return scheduler.request();
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            this.reload();
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Read the changed values and publish them to listeners.
+     * <p>
+     * The read holds no lock other callers wait for, except for other reads of this reader.
+     * A read which is still running when this reader is stopped is discarded.
+     */
     @Override
-    public synchronized void reload() {
-        if (this.started) {
-            ConfigurationResults<C> current = this.readValues();
-            ConfigurationResults<C> resultMap = new ConfigurationResults<>(current.size() + this.configurations.size() + 1, 1);
-            current.forEach((name, value) -> {// Iterate through all current values and compare with previous ones.
-                Optional<C> previous = this.configurations.remove(name);
-                if (Objects.equals(value, previous)) {
-                    return;
+    public void reload() {
+        long epoch = this.epoch;
+        if ((epoch & 1) == 1) {
+            this.read(epoch, false);
+        }
+    }
+
+    /**
+     * Read and commit values, then publish the committed changes.
+     *
+     * @param epoch   the epoch the read began in.
+     * @param initial if all values should be read rather than the changed values.
+     */
+    private void read(long epoch, boolean initial) {
+        this.readLock.lock();
+        try {
+            if (this.epoch != epoch) {
+                return;// stopped while waiting for the previous read
+            }
+            if (!this.commit(epoch, this.timeRead(initial))) {
+                return;
+            }
+        } finally {
+            this.readLock.unlock();
+        }
+        this.publish();
+    }
+
+    /**
+     * Merge the changes of a read into the committed changes
+     * unless this reader was stopped or restarted since the read began.
+     *
+     * @param epoch   the epoch the read began in.
+     * @param changes the changes read.
+     * @return if the changes were committed.
+     */
+    private boolean commit(long epoch, ConfigurationResults<C> changes) {
+        Commit<C> previous;
+        do {
+            previous = this.committed.get();
+            if (previous.epoch != epoch) {
+                return false;// stale, the reader was stopped during the read
+            }
+        } while (!this.committed.compareAndSet(previous, new Commit<>(epoch, ConfigurationResults.merge(previous.changes, changes), true)));
+        return true;
+    }
+
+    /**
+     * Submit committed changes to listeners until none are left.
+     * <p>
+     * Only one thread publishes at a time so listeners receive changes in the order they were committed,
+     * with changes committed while another thread publishes merged and published by that thread.
+     */
+    private void publish() {
+        while (this.committed.get().pending && this.publishing.compareAndSet(false, true)) {
+            try {
+                Commit<C> commit;
+                while ((commit = this.committed.get()).pending) {
+                    if (this.committed.compareAndSet(commit, new Commit<>(commit.epoch, ConfigurationResults.empty(), false))) {
+                        this.submit(commit.changes);
+                    }
                 }
-                resultMap.put(name, value);
-            });
-            this.configurations.forEach((s, configurationValueContainer) -> resultMap.put(s, Optional.empty()));
-            this.configurations.clear();
-            this.configurations.putAll(current);
-            this.submit(resultMap);
+            } finally {
+                this.publishing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Start a new epoch, causing reads of the previous epoch to be discarded.
+     * Must hold the monitor of this instance.
+     *
+     * @return the new epoch.
+     */
+    private long advanceEpoch() {
+        long epoch = ++this.epoch;
+        Commit<C> previous;
+        do {
+            previous = this.committed.get();
+        } while (!this.committed.compareAndSet(previous, new Commit<>(epoch, previous.changes, previous.pending)));
+        return epoch;
+    }
+
+    private boolean isStarted() {
+        return (this.epoch & 1) == 1;
+    }
+
+    /**
+     * Read the initial or changed values, recording the time taken if metrics are enabled.
+     *
+     * @param initial if all values should be read rather than the changed values.
+     * @return the read values.
+     */
+    private ConfigurationResults<C> timeRead(boolean initial) {
+        ConfigurationMetrics metrics = this.getMetrics();
+        if (metrics == ConfigurationMetrics.NONE) {
+            return initial ? this.readInitialValues() : this.readChangedValues();
         }
+        long start = System.nanoTime();
+        ConfigurationResults<C> results = initial ? this.readInitialValues() : this.readChangedValues();
+        metrics.recordRead(this, System.nanoTime() - start, results.size());
+        return results;
     }
 
+    /**
+     * Read all values and record them as the previous values for following calls to
+     * {@link ReloadRequiredConfigurationReader#readChangedValues()}.
+     * <p>
+     * Subclasses overriding this should also override {@link ReloadRequiredConfigurationReader#readChangedValues()}.
+     *
+     * @return the configuration data in it's entirety.
+     */
+    protected ConfigurationResults<C> readInitialValues() {
+        ConfigurationResults<C> current = this.readValues();
+        this.configurations.clear();
+        this.configurations.putAll(current);
+        return current;
+    }
+
+    /**
+     * Read all values and compare them to the previous values,
+     * recording them as the previous values for the following call.
+     *
+     * @return the configuration data which changed since the previous read.
+     */
+    protected ConfigurationResults<C> readChangedValues() {
+        ConfigurationResults<C> current = this.readValues();
+        ConfigurationResults.Builder<C> resultMap = new ConfigurationResults.Builder<>();
+        current.forEach((name, value) -> {// Iterate through all current values and compare with previous ones.
+            Optional<C> previous = this.configurations.remove(name);
+            if (Objects.equals(value, previous)) {
+                return;
+            }
+            resultMap.put(name, value);
+        });
+        this.configurations.keySet().forEach(resultMap::unset);
+        this.configurations.clear();
+        this.configurations.putAll(current);
+        return resultMap.build();
+    }
+
+    /**
+     * Stop reading without waiting for a read in progress, which is discarded.
+     */
     @Override
     public synchronized void stopProviding() {
-        this.started = false;
+        if (this.isStarted()) {
+            this.advanceEpoch();
+        }
+        ReloadScheduler scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.stopPolling();
+        }
     }
 
     /**
@@ -61,4 +287,23 @@ public abstract class ReloadRequiredConfigurationReader<C> extends Configuration
      * @return the configuration data parsed in it's entirety.
      */
     public abstract ConfigurationResults<C> readValues();
+
+    /**
+     * Changes committed by reads and not yet published.
+     */
+    private static final class Commit<C> {
+        private final long epoch;
+        private final ConfigurationResults<C> changes;
+
+        /**
+         * If a read committed since the last publish, even without changes.
+         */
+        private final boolean pending;
+
+        private Commit(long epoch, ConfigurationResults<C> changes, boolean pending) {
+            this.epoch = epoch;
+            this.changes = changes;
+            this.pending = pending;
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses reload requests into scheduled reloads.
+ * <p>
+ * The first request starts a debounce window, and all requests until the reload starts share its future.
+ * Reloads start no sooner than the minimum interval after the previous reload started.
+ * Requests made while a reload runs are served by the following reload,
+ * so every caller observes changes made before its request.
+ */
+final class ReloadScheduler {
+    private final Runnable reload;
+    private final ScheduledExecutorService executor;
+    private final long debounceNanos;
+    private final long minIntervalNanos;
+    private final long pollMillis;
+
+    /**
+     * The future of the next reload which has not started, null if none is requested.
+     */
+    private CompletableFuture<Void> pending;
+
+    /**
+     * When the previous reload started, in {@link System#nanoTime()}.
+     */
+    private long lastStart;
+
+    /**
+     * The periodic request task, null if not polling.
+     */
+    private ScheduledFuture<?> poller;
+
+    /**
+     * Schedule reloads.
+     *
+     * @param reload            the reload to run.
+     * @param executor          the executor to run reloads and polling on.
+     * @param debounceMillis    the time to wait after the first request before reloading.
+     * @param minIntervalMillis the minimum time between the start of reloads.
+     * @param pollMillis        the interval to request reloads at while polling, 0 to not poll.
+     */
+    ReloadScheduler(Runnable reload, ScheduledExecutorService executor, long debounceMillis, long minIntervalMillis, long pollMillis) {
+        if (debounceMillis < 0 || minIntervalMillis < 0 || pollMillis < 0) {
+            throw new IllegalArgumentException("Reload scheduling times must not be negative");
+        }
+        this.reload = reload;
+        this.executor = executor;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        this.pollMillis = pollMillis;
+        this.lastStart = System.nanoTime() - this.minIntervalNanos;
+    }
+
+    /**
+     * Request a reload, joining the next one if already requested.
+     *
+     * @return the future completing when the reload serving this request finishes.
+     */
+    synchronized CompletableFuture<Void> request() {
+        if (this.pending != null) {
+            return this.pending;
+        }
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        this.pending = pending;
+        long delay = Math.max(this.debounceNanos, this.lastStart + this.minIntervalNanos - System.nanoTime());
+        try {
+            this.executor.schedule(this::run, delay, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            this.pending = null;
+            pending.completeExceptionally(e);
+        }
+        return pending;
+    }
+
+    /**
+     * Start requesting reloads periodically if polling is configured.
+     */
+    synchronized void startPolling() {
+        if (this.pollMillis > 0 && this.poller == null) {
+            this.poller = this.executor.scheduleWithFixedDelay(this::request, this.pollMillis, this.pollMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop requesting reloads periodically.
+     */
+    synchronized void stopPolling() {
+        if (this.poller != null) {
+            this.poller.cancel(false);
+            this.poller = null;
+        }
+    }
+
+    private void run() {
+        CompletableFuture<Void> future;
+        synchronized (this) {
+            future = this.pending;
+            this.pending = null;
+            this.lastStart = System.nanoTime();
+        }
+        try {
+            this.reload.run();
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } catch (Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles the Java source files under a directory in process into memory.
+ * <p>
+ * The system compiler and its file manager are kept between compilations until closed,
+ * and only source files whose fingerprint changed are compiled again,
+ * with the classes of unchanged files provided to the compiler from memory.
+ * Each compilation that changes any class produces a new class loader for the classes.
+ * <p>
+ * As only changed files are compiled, constants inlined from other source files
+ * are only updated when the files using them are changed as well.
+ * <p>
+ * Closing releases the file manager and any files it holds open,
+ * a later compilation opens a new one and keeps using the classes compiled before.
+ */
+final class SourceCompiler implements AutoCloseable {
+    /**
+     * The options for all compilations, annotation processing is not used for configuration.
+     */
+    private static final List<String> OPTIONS = Arrays.asList("-proc:none", "-g");
+
+    private final Path sourceDirectory;
+    private final ClassLoader parent;
+    private final JavaCompiler compiler;
+
+    /**
+     * The file manager for compilations, null before the first compilation or once closed.
+     */
+    private MemoryFileManager fileManager;
+
+    /**
+     * The fingerprints of the compiled source files and the classes compiled from them, by source file.
+     */
+    private final Map<Path, Source> sources = new HashMap<>();
+
+    /**
+     * The bytes of all compiled classes, by binary name.
+     */
+    private final Map<String, byte[]> classes = new HashMap<>();
+
+    /**
+     * The class loader of the current classes, null before the first compilation.
+     */
+    private ClassLoader loader;
+
+    /**
+     * Compile the source files under a directory.
+     *
+     * @param sourceDirectory the root directory of the source files.
+     * @param parent          the parent class loader of loaders for the compiled classes.
+     */
+    SourceCompiler(Path sourceDirectory, ClassLoader parent) {
+        this.sourceDirectory = sourceDirectory;
+        this.parent = parent;
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (this.compiler == null) {
+            throw new ConfigurationCodeLoaderException("No system Java compiler is available, a JDK is required to compile source");
+        }
+    }
+
+    /**
+     * Compile the source files that changed since the last compilation.
+     *
+     * @return the class loader of the current classes, the same loader as the previous call if nothing changed.
+     */
+    synchronized ClassLoader compile() {
+        List<Path> changed = new ArrayList<>();
+        Set<Path> removed = new HashSet<>(this.sources.keySet());
+        Map<Path, Long> fingerprints = new HashMap<>();
+        for (Path file : this.findSourceFiles()) {
+            long fingerprint = ClassFiles.fingerprint(file);
+            Source previous = this.sources.get(file);
+            removed.remove(file);
+            if (previous == null || previous.fingerprint != fingerprint) {
+                changed.add(file);
+                fingerprints.put(file, fingerprint);
+            }
+        }
+        if (this.loader != null && changed.isEmpty() && removed.isEmpty()) {
+            return this.loader;
+        }
+        Map<Path, Map<String, byte[]>> output = changed.isEmpty() ? new HashMap<>() : this.compile(changed);
+        for (Path file : removed) {
+            this.sources.remove(file).classNames.forEach(this.classes::remove);
+        }
+        for (Path file : changed) {
+            Source previous = this.sources.get(file);
+            if (previous != null) {
+                previous.classNames.forEach(this.classes::remove);
+            }
+            Map<String, byte[]> compiled = output.getOrDefault(file, new HashMap<>());
+            this.classes.putAll(compiled);
+            this.sources.put(file, new Source(fingerprints.get(file), compiled.keySet()));
+        }
+        this.loader = new MemoryClassLoader(new HashMap<>(this.classes), this.parent);
+        return this.loader;
+    }
+
+    /**
+     * Compile source files with the classes of all other source files available from memory.
+     *
+     * @param files the source files to compile.
+     * @return the bytes of the compiled classes by binary name, by the source file they were compiled from.
+     */
+    private Map<Path, Map<String, byte[]>> compile(List<Path> files) {
+        if (this.fileManager == null) {
+            this.fileManager = new MemoryFileManager(this.compiler.getStandardFileManager(null, null, null));
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Iterable<? extends JavaFileObject> units = this.fileManager.getStandardFileManager()
+                .getJavaFileObjectsFromFiles(files.stream().map(Path::toFile).collect(Collectors.toList()));
+        this.fileManager.begin(this.classes);
+        Boolean success;
+        try {
+            success = this.compiler.getTask(null, this.fileManager, diagnostics, OPTIONS, null, units).call();
+        } finally {
+            this.fileManager.end();
+        }
+        if (!Boolean.TRUE.equals(success)) {
+            StringBuilder message = new StringBuilder("Unable to compile source in: \"").append(this.sourceDirectory).append('"');
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    message.append(System.lineSeparator()).append(diagnostic.getSource() == null ? "" : diagnostic.getSource().getName() + ":" + diagnostic.getLineNumber() + ": ").append(diagnostic.getMessage(null));
+                }
+            }
+            throw new ConfigurationCodeLoaderException(message.toString());
+        }
+        Map<Path, Map<String, byte[]>> output = new HashMap<>();
+        for (MemoryClassFile classFile : this.fileManager.getOutput()) {
+            output.computeIfAbsent(classFile.source, source -> new HashMap<>()).put(classFile.binaryName, classFile.getBytes());
+        }
+        return output;
+    }
+
+    /**
+     * Close the file manager, waiting for a compilation in progress.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.fileManager == null) {
+            return;
+        }
+        try {
+            this.fileManager.close();
+        } catch (IOException e) {
+            throw new ConfigurationCodeLoaderException("Unable to close the file manager for: \"" + this.sourceDirectory + "\"", e);
+        } finally {
+            this.fileManager = null;
+        }
+    }
+
+    private List<Path> findSourceFiles() {
+        try (Stream<Path> files = Files.walk(this.sourceDirectory)) {
+            return files.filter(file -> file.toString().endsWith(".java") && Files.isRegularFile(file))
+                    .map(file -> file.toAbsolutePath().normalize())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new ConfigurationCodeLoaderException("Unable to list source files in: \"" + this.sourceDirectory + "\"", e);
+        }
+    }
+
+    /**
+     * The fingerprint of a compiled source file and the binary names of the classes compiled from it.
+     */
+    private static final class Source {
+        private final long fingerprint;
+        private final Set<String> classNames;
+
+        private Source(long fingerprint, Set<String> classNames) {
+            this.fingerprint = fingerprint;
+            this.classNames = new HashSet<>(classNames);
+        }
+    }
+
+    /**
+     * Writes compiled classes to memory and provides previously compiled classes to the compiler from memory.
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final List<MemoryClassFile> output = new ArrayList<>();
+        private Map<String, byte[]> classes = new HashMap<>();
+
+        private MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        private StandardJavaFileManager getStandardFileManager() {
+            return this.fileManager;
+        }
+
+        private void begin(Map<String, byte[]> classes) {
+            this.classes = classes;
+            this.output.clear();
+        }
+
+        private void end() {
+            this.classes = new HashMap<>();
+        }
+
+        private List<MemoryClassFile> getOutput() {
+            return this.output;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+            if (kind != JavaFileObject.Kind.CLASS) {
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+            }
+            MemoryClassFile classFile = new MemoryClassFile(className, null, sibling == null ? null : Paths.get(sibling.toUri()).toAbsolutePath().normalize());
+            this.output.add(classFile);
+            return classFile;
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+            Iterable<JavaFileObject> listed = super.list(location, packageName, kinds, recurse);
+            if (location != StandardLocation.CLASS_PATH || !kinds.contains(JavaFileObject.Kind.CLASS) || this.classes.isEmpty()) {
+                return listed;
+            }
+            List<JavaFileObject> files = new ArrayList<>();
+            listed.forEach(files::add);
+            String prefix = packageName.isEmpty() ? "" : packageName + ".";
+            this.classes.forEach((binaryName, bytes) -> {
+                if (binaryName.startsWith(prefix) && (recurse || binaryName.indexOf('.', prefix.length()) == -1)) {
+                    files.add(new MemoryClassFile(binaryName, bytes, null));
+                }
+            });
+            return files;
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            return file instanceof MemoryClassFile ? ((MemoryClassFile) file).binaryName : super.inferBinaryName(location, file);
+        }
+    }
+
+    /**
+     * A class file in memory, either written by the compiler or previously compiled.
+     */
+    private static final class MemoryClassFile extends SimpleJavaFileObject {
+        private final String binaryName;
+
+        /**
+         * The source file the class was compiled from, null if previously compiled.
+         */
+        private final Path source;
+        private byte[] bytes;
+        private ByteArrayOutputStream stream;
+
+        private MemoryClassFile(String binaryName, byte[] bytes, Path source) {
+            super(URI.create("memory:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.binaryName = binaryName;
+            this.bytes = bytes;
+            this.source = source;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(this.getBytes());
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            this.stream = new ByteArrayOutputStream();
+            return this.stream;
+        }
+
+        private byte[] getBytes() {
+            if (this.bytes == null && this.stream != null) {
+                this.bytes = this.stream.toByteArray();
+            }
+            return this.bytes;
+        }
+    }
+
+    /**
+     * Defines classes from compiled bytes in memory.
+     */
+    private static final class MemoryClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        private MemoryClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = this.classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return this.defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
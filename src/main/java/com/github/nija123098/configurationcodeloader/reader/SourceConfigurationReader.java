@@ -0,0 +1,96 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ConfigurationReader} instance for reading configuration values
+ * from static fields of a class compiled from Java source files.
+ * <p>
+ * The source files under a directory are compiled in process with the system compiler into memory,
+ * on each read only the files which changed since the last compilation are compiled again
+ * and the class is loaded through a new class loader.
+ * If no source file changed the previously loaded class is read again.
+ * Stopping releases the compiler's file manager, which is opened again by the next compilation.
+ *
+ * @param <C> the base type of any variables produced by this class.
+ *            Only guaranteed as long as the {@link Class} configured as the source and {@link Predicate<Field>}
+ *            only results in fields who's variable values only are this type.
+ */
+public class SourceConfigurationReader<C> extends ChangingVariableConfigurationReader<C> {
+    private final SourceCompiler compiler;
+
+    /**
+     * Read the configuration data from a class compiled from source files.
+     *
+     * @param sourceDirectory the root directory of the source files.
+     * @param className       the binary name of the class to read.
+     */
+    public SourceConfigurationReader(Path sourceDirectory, String className) {
+        this(sourceDirectory, className, null);
+    }
+
+    /**
+     * Read the configuration data from a class compiled from source files.
+     *
+     * @param sourceDirectory the root directory of the source files.
+     * @param className       the binary name of the class to read.
+     * @param fieldFilter     the filter to decide if a field should be used to provide configuration data.
+     */
+    public SourceConfigurationReader(Path sourceDirectory, String className, Predicate<Field> fieldFilter) {
+        this(sourceDirectory, className, fieldFilter, SourceConfigurationReader.class.getClassLoader());
+    }
+
+    /**
+     * Read the configuration data from a class compiled from source files.
+     *
+     * @param sourceDirectory the root directory of the source files.
+     * @param className       the binary name of the class to read.
+     * @param fieldFilter     the filter to decide if a field should be used to provide configuration data.
+     * @param parent          the parent class loader of the compiled classes.
+     */
+    public SourceConfigurationReader(Path sourceDirectory, String className, Predicate<Field> fieldFilter, ClassLoader parent) {
+        this(new SourceCompiler(sourceDirectory, parent), className, fieldFilter);
+    }
+
+    private SourceConfigurationReader(SourceCompiler compiler, String className, Predicate<Field> fieldFilter) {
+        super(new ClassSupplier(compiler, className), fieldFilter);
+        this.compiler = compiler;
+    }
+
+    /**
+     * Stop reading and close the compiler's file manager,
+     * waiting for a compilation in progress without holding this reader's lock.
+     */
+    @Override
+    public void stopProviding() {
+        super.stopProviding();
+        this.compiler.close();
+    }
+
+    /**
+     * Compiles changed source files and loads the class from the resulting class loader.
+     */
+    private static class ClassSupplier implements Supplier<Class<?>> {
+        private final SourceCompiler compiler;
+        private final String className;
+
+        private ClassSupplier(SourceCompiler compiler, String className) {
+            this.compiler = compiler;
+            this.className = className;
+        }
+
+        @Override
+        public Class<?> get() {
+            try {
+                return this.compiler.compile().loadClass(this.className);
+            } catch (ClassNotFoundException e) {
+                throw new ConfigurationCodeLoaderException("Class: \"" + this.className + "\" not compiled from source", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Shares {@link URLClassLoader}s between {@link URLClassVariableConfigurationReader}s reading classes from the same {@link URL}.
+ * <p>
+ * Each generation is a single class loader with every class of the readers made by this instance loaded in one pass,
+ * so an archive is opened once per generation rather than once per reader.
+ * A new generation is only made when a reader needs a class whose file changed since it was loaded,
+ * or for URLs that can not be fingerprinted when a reader reloads a class from the generation it already read.
+ * A reader keeps the generation it holds while the file of its own class is unchanged,
+ * so its class stays the same when other classes from the URL are reloaded.
+ * Generations which have been replaced are closed once no reader uses them.
+ * <p>
+ * A closed generation stays in memory as long as anything references one of its classes,
+ * such as a configuration value of one of its types held by a listener.
+ * Generations are tracked with phantom references until garbage collected,
+ * and a limit can be set to be warned of, or to refuse, new generations while too many replaced ones are retained.
+ */
+public class URLClassLoaderGenerations implements Closeable {
+    /**
+     * The URL to load classes from.
+     */
+    private final URL url;
+
+    /**
+     * The jar file or class directory of a file URL, null for other URLs.
+     */
+    private final Path path;
+
+    /**
+     * If the URL is a jar rather than a class directory.
+     */
+    private final boolean jar;
+
+    /**
+     * The names of all classes read by readers of this instance, in order of registration.
+     */
+    private final Set<String> classNames = new LinkedHashSet<>();
+
+    /**
+     * The fingerprints of jar files by path, with the file attributes they were computed at.
+     */
+    private final Map<Path, FileFingerprint> fingerprints = new HashMap<>();
+
+    /**
+     * The class files read from the jar of a jar URL by class name, with null for classes the jar does not contain.
+     */
+    private final Map<String, byte[]> jarClassFiles = new HashMap<>();
+
+    /**
+     * The fingerprint of the jar {@link URLClassLoaderGenerations#jarClassFiles} were read from.
+     */
+    private long jarClassFilesFingerprint = ClassFiles.MISSING;
+
+    /**
+     * The newest generation, null if none was made or this instance was closed.
+     */
+    private Generation current;
+
+    /**
+     * The generations which have not been closed.
+     */
+    private final Set<Generation> openGenerations = new LinkedHashSet<>();
+
+    /**
+     * The queue phantom references to class loaders of generations are enqueued on once garbage collected.
+     */
+    private final ReferenceQueue<URLClassLoader> collected = new ReferenceQueue<>();
+
+    /**
+     * The phantom references to the class loaders of generations which have not been garbage collected.
+     */
+    private final Set<Reference<URLClassLoader>> retained = new HashSet<>();
+
+    /**
+     * The number of retained replaced generations at which new generations are reported or refused.
+     */
+    private int generationLimit = Integer.MAX_VALUE;
+
+    /**
+     * If new generations are refused once the limit is reached.
+     */
+    private boolean capGenerations;
+
+    /**
+     * Notified of the number of retained replaced generations when a new generation is needed at the limit, null if none.
+     */
+    private IntConsumer limitReached;
+
+    /**
+     * Share class loaders for classes from the provided URL.
+     *
+     * @param url the URL to load classes from.
+     */
+    public URLClassLoaderGenerations(URL url) {
+        this.url = url;
+        if ("file".equals(url.getProtocol())) {
+            this.path = ClassFiles.toDirectory(url);
+            this.jar = !url.getPath().endsWith("/");
+        } else {
+            this.path = null;
+            this.jar = false;
+        }
+    }
+
+    /**
+     * Make a reader for a class from the URL which shares class loaders with the other readers of this instance.
+     *
+     * @param className the class name to load the class for.
+     * @param <C>       the base type of any variables produced by the reader.
+     * @return the reader.
+     */
+    public <C> URLClassVariableConfigurationReader<C> newReader(String className) {
+        return this.newReader(className, null);
+    }
+
+    /**
+     * Make a reader for a class from the URL which shares class loaders with the other readers of this instance.
+     *
+     * @param className   the class name to load the class for.
+     * @param fieldFilter the filter to decide if a field should be used to provide configuration data.
+     * @param <C>         the base type of any variables produced by the reader.
+     * @return the reader.
+     */
+    public <C> URLClassVariableConfigurationReader<C> newReader(String className, Predicate<Field> fieldFilter) {
+        this.register(className);
+        return new URLClassVariableConfigurationReader<>(this, className, fieldFilter);
+    }
+
+    /**
+     * Make a reader providing deferred values for a class from the URL
+     * which shares class loaders with the other readers of this instance.
+     * <p>
+     * The class is not initialized until a value is requested,
+     * and a new class is only provided when its file changes.
+     *
+     * @param className   the class name to load the class for.
+     * @param fieldFilter the filter to decide if a field should be used to provide configuration data.
+     * @param <C>         the base type of the deferred values.
+     * @return the reader.
+     */
+    public <C> LazyConfigurationReader<C> newLazyReader(String className, Predicate<Field> fieldFilter) {
+        this.register(className);
+        return new LazyConfigurationReader<>(new URLClassVariableConfigurationReader.ClassSupplier(this, className), fieldFilter);
+    }
+
+    /**
+     * Get the URL classes are loaded from.
+     *
+     * @return the URL.
+     */
+    public URL getURL() {
+        return this.url;
+    }
+
+    /**
+     * Get the number of generations which have not yet been closed,
+     * including the current one.
+     *
+     * @return the number of open generations.
+     */
+    public synchronized int getLiveGenerationCount() {
+        return this.openGenerations.size();
+    }
+
+    /**
+     * Get the number of generations which have not yet been garbage collected,
+     * including closed generations whose classes are still referenced.
+     *
+     * @return the number of retained generations.
+     */
+    public synchronized int getRetainedGenerationCount() {
+        return this.expunge();
+    }
+
+    /**
+     * Limit the number of replaced generations retained in memory.
+     * <p>
+     * Replaced generations count until the garbage collector has reclaimed them,
+     * which may be some time after nothing references them, as no collection is forced.
+     * When a new generation is needed while the limit is reached the listener is notified of the retained count,
+     * and if capped the new generation is not made and the reload needing it fails with a
+     * {@link ConfigurationCodeLoaderException}, so the previously read values remain in use.
+     *
+     * @param limit        the number of retained generations, not including the current one, to allow.
+     * @param cap          if new generations are refused at the limit, rather than only notifying.
+     * @param limitReached notified of the number of retained replaced generations at the limit, null to not notify.
+     */
+    public synchronized void setGenerationLimit(int limit, boolean cap, IntConsumer limitReached) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The generation limit must be at least 1: " + limit);
+        }
+        this.generationLimit = limit;
+        this.capGenerations = cap;
+        this.limitReached = limitReached;
+    }
+
+    /**
+     * Close all generations, readers of this instance can not read after this.
+     */
+    @Override
+    public synchronized void close() {
+        for (Generation generation : new ArrayList<>(this.openGenerations)) {
+            generation.retired = true;
+            generation.close();
+        }
+        this.current = null;
+    }
+
+    /**
+     * Add a class to load in each new generation.
+     *
+     * @param className the class name.
+     */
+    synchronized void register(String className) {
+        this.classNames.add(className);
+    }
+
+    /**
+     * Get a generation with an up to date class loaded, releasing the previously held generation if it differs.
+     *
+     * @param className the class name to load.
+     * @param held      the generation the caller previously read from, null if none.
+     * @return the generation to read the class from, which the caller then holds.
+     */
+    synchronized Generation acquire(String className, Generation held) {
+        this.classNames.add(className);
+        long fingerprint = this.fingerprint(className);
+        if (held != null && this.isUnchanged(held, className, fingerprint)) {
+            return held;// keep the class even if other classes were reloaded
+        }
+        Generation generation = this.current;
+        if (generation == null || !this.isUsable(generation, className, fingerprint, held)) {
+            generation = this.newGeneration();
+        }
+        generation.load(className, fingerprint);
+        if (generation != held) {
+            generation.holders++;
+            if (held != null) {
+                this.release(held);
+            }
+        }
+        return generation;
+    }
+
+    /**
+     * Stop holding a generation, closing it if it was replaced and no longer held.
+     *
+     * @param generation the generation to release.
+     */
+    synchronized void release(Generation generation) {
+        if (--generation.holders == 0 && generation.retired) {
+            generation.close();
+        }
+    }
+
+    /**
+     * Fingerprint the file a class is loaded from.
+     *
+     * @param className the class name.
+     * @return the fingerprint, or {@link ClassFiles#MISSING} if the file does not exist or can not be fingerprinted.
+     */
+    synchronized long fingerprintClassFile(String className) {
+        return this.fingerprint(className);
+    }
+
+    /**
+     * Read the class file of a class without loading it.
+     * <p>
+     * Class files of a jar are read once per change of the jar,
+     * along with those of every other class registered with this instance so the jar is only opened once.
+     *
+     * @param className the class name.
+     * @return the contents of the class file, null if the URL is not a file URL or the class file does not exist.
+     */
+    ByteBuffer readClassFile(String className) {
+        if (this.path == null) {
+            return null;
+        }
+        if (this.jar) {
+            return this.readJarClassFile(className);
+        }
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(this.path.resolve(toEntry(className))));
+        } catch (IOException e) {
+            return null;// loading the class reports the problem
+        }
+    }
+
+    /**
+     * Read the class file of a class from the jar, reusing the contents read since the jar last changed.
+     */
+    private synchronized ByteBuffer readJarClassFile(String className) {
+        long fingerprint = this.fingerprint(className);
+        if (fingerprint == ClassFiles.MISSING) {
+            return null;
+        }
+        if (fingerprint != this.jarClassFilesFingerprint) {
+            this.jarClassFiles.clear();
+            this.jarClassFilesFingerprint = fingerprint;
+        }
+        if (!this.jarClassFiles.containsKey(className)) {
+            try (ZipFile zip = new ZipFile(this.path.toFile())) {
+                this.jarClassFiles.put(className, readEntry(zip, className));
+                for (String registered : this.classNames) {
+                    if (!this.jarClassFiles.containsKey(registered)) {
+                        this.jarClassFiles.put(registered, readEntry(zip, registered));
+                    }
+                }
+            } catch (IOException e) {
+                this.jarClassFiles.clear();
+                return null;// loading the class reports the problem
+            }
+        }
+        byte[] classFile = this.jarClassFiles.get(className);
+        return classFile == null ? null : ByteBuffer.wrap(classFile);
+    }
+
+    /**
+     * Read the class file of a class from an open jar.
+     *
+     * @return the contents of the class file, null if the jar does not contain it.
+     */
+    private static byte[] readEntry(ZipFile zip, String className) throws IOException {
+        ZipEntry zipEntry = zip.getEntry(toEntry(className));
+        if (zipEntry == null) {
+            return null;
+        }
+        try (InputStream in = zip.getInputStream(zipEntry)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(32, (int) zipEntry.getSize()));
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private static String toEntry(String className) {
+        return className.replace('.', '/') + ".class";
+    }
+
+    /**
+     * Check if a held generation loaded the class from a file which has not changed since.
+     */
+    private boolean isUnchanged(Generation held, String className, long fingerprint) {
+        if (this.path == null || held.closed || fingerprint == ClassFiles.MISSING) {
+            return false;
+        }
+        Long loaded = held.fingerprints.get(className);
+        return loaded != null && loaded == fingerprint;
+    }
+
+    /**
+     * Check if a generation provides the current version of a class.
+     */
+    private boolean isUsable(Generation generation, String className, long fingerprint, Generation held) {
+        Long loaded = generation.fingerprints.get(className);
+        if (loaded == null) {
+            return true;// not loaded yet so loading it will read the current file
+        }
+        if (this.path == null) {
+            return generation != held;// can't detect changes, reload once per generation
+        }
+        return fingerprint != ClassFiles.MISSING && loaded == fingerprint;
+    }
+
+    /**
+     * Make a new generation with all registered classes loaded, retiring the current one.
+     */
+    private Generation newGeneration() {
+        int retained = this.expungeReplaced();
+        if (retained >= this.generationLimit) {
+            if (this.limitReached != null) {
+                this.limitReached.accept(retained);
+            }
+            if (this.capGenerations) {
+                throw new ConfigurationCodeLoaderException("Unable to load a new generation from URL: \"" + this.url + "\", " + retained + " replaced generations are still retained");
+            }
+        }
+        if (this.current != null) {
+            this.current.retired = true;
+            if (this.current.holders == 0) {
+                this.current.close();
+            }
+        }
+        URLClassLoader loader = new URLClassLoader(new URL[]{this.url});
+        Generation generation = new Generation(loader);
+        this.retained.add(new PhantomReference<>(loader, this.collected));
+        this.openGenerations.add(generation);
+        this.current = generation;
+        for (String className : this.classNames) {
+            try {
+                generation.load(className, this.fingerprint(className));
+            } catch (ConfigurationCodeLoaderException e) {
+                // reported to the reader of the class when it reads
+            }
+        }
+        return generation;
+    }
+
+    /**
+     * Remove the references of garbage collected generations.
+     *
+     * @return the number of retained generations other than the current one.
+     */
+    private int expungeReplaced() {
+        return this.expunge() - (this.current == null ? 0 : 1);
+    }
+
+    /**
+     * Remove the references of garbage collected generations.
+     *
+     * @return the number of generations still retained.
+     */
+    private int expunge() {
+        Reference<? extends URLClassLoader> reference;
+        while ((reference = this.collected.poll()) != null) {
+            this.retained.remove(reference);
+        }
+        return this.retained.size();
+    }
+
+    /**
+     * Fingerprint the file a class is loaded from.
+     * <p>
+     * Class files are small so they are hashed every time, as a rewrite can keep both their size and modification time.
+     * Jars are only hashed again if their size or modification time changed.
+     *
+     * @param className the class name.
+     * @return the fingerprint, or {@link ClassFiles#MISSING} if the file does not exist or can not be fingerprinted.
+     */
+    private long fingerprint(String className) {
+        if (this.path == null) {
+            return ClassFiles.MISSING;
+        }
+        if (!this.jar) {
+            return ClassFiles.fingerprint(ClassFiles.locate(this.path, className));
+        }
+        Path file = this.path;
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            this.fingerprints.remove(file);
+            return ClassFiles.MISSING;
+        }
+        FileFingerprint previous = this.fingerprints.get(file);
+        if (previous != null && previous.matches(attributes)) {
+            return previous.fingerprint;
+        }
+        FileFingerprint fingerprint = new FileFingerprint(attributes, ClassFiles.fingerprint(file));
+        this.fingerprints.put(file, fingerprint);
+        return fingerprint.fingerprint;
+    }
+
+    /**
+     * The fingerprint of a file with the attributes it was computed at.
+     */
+    private static final class FileFingerprint {
+        private final long size;
+        private final long lastModified;
+        private final long fingerprint;
+
+        private FileFingerprint(BasicFileAttributes attributes, long fingerprint) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return this.size == attributes.size() && this.lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    /**
+     * A class loader and the classes loaded by it.
+     * <p>
+     * Guarded by the monitor of the owning {@link URLClassLoaderGenerations}.
+     */
+    final class Generation {
+        private final URLClassLoader loader;
+        private final Map<String, Class<?>> classes = new HashMap<>();
+
+        /**
+         * The fingerprints of the files classes were loaded from, by class name.
+         */
+        private final Map<String, Long> fingerprints = new HashMap<>();
+
+        /**
+         * The number of readers currently reading from this generation.
+         */
+        private int holders;
+
+        /**
+         * If this generation was replaced by a newer one.
+         */
+        private boolean retired;
+
+        private boolean closed;
+
+        private Generation(URLClassLoader loader) {
+            this.loader = loader;
+        }
+
+        /**
+         * Get a class loaded in this generation.
+         *
+         * @param className the class name.
+         * @return the class.
+         */
+        Class<?> getLoadedClass(String className) {
+            synchronized (URLClassLoaderGenerations.this) {
+                return this.classes.get(className);
+            }
+        }
+
+        /**
+         * Load a class without initializing it if not already loaded.
+         */
+        private void load(String className, long fingerprint) {
+            if (this.classes.containsKey(className)) {
+                return;
+            }
+            try {
+                this.classes.put(className, Class.forName(className, false, this.loader));
+                this.fingerprints.put(className, fingerprint);
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new ConfigurationCodeLoaderException("Class: \"" + className + "\" not found in URL: \"" + url + "\"", e);
+            }
+        }
+
+        private void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            openGenerations.remove(this);
+            try {
+                this.loader.close();
+            } catch (IOException e) {
+                throw new ConfigurationCodeLoaderException("Unable to close class loader for URL: \"" + url + "\"", e);
+            }
+        }
+    }
+}
@@ -1,21 +1,52 @@
 package com.github.nija123098.configurationcodeloader.reader;
 
-import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
 
 import java.lang.reflect.Field;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * A {@link ConfigurationReader} instance for reading configuration values
  * from member fields of instances or static fields of classes from a class URL.
+ * <p>
+ * For file URLs the class file, or jar, is fingerprinted on each read
+ * and the class is only loaded again if the fingerprint changed since the last load.
+ * Class loaders which are no longer used are closed,
+ * readers of many classes from the same URL should share them through {@link URLClassLoaderGenerations}.
+ * <p>
+ * With the default field filter, if every {@link VariableConfigurationReader.Configuration} field
+ * of the class is a {@code static final} constant of a primitive or {@link String} type
+ * the values are read directly from the class file without loading the class.
+ * The class is loaded as usual if any of the fields needs the class to be initialized.
  *
  * @param <C> the base type of any variables produced by this class.
  *            Only guaranteed as long as the {@link Class} configured as the source and {@link Predicate<Field>}
  *            only results in fields who's variable values only are this type.
  */
 public class URLClassVariableConfigurationReader<C> extends ChangingVariableConfigurationReader<C> {
+    /**
+     * The descriptor of the annotation marking the fields read by the default field filter.
+     */
+    private static final String CONFIGURATION_DESCRIPTOR = "L" + VariableConfigurationReader.Configuration.class.getName().replace('.', '/') + ";";
+
+    private final URLClassLoaderGenerations generations;
+    private final String className;
+
+    /**
+     * If the default field filter is used, so constant values can be read from the class file.
+     */
+    private final boolean constantsReadable;
+
+    /**
+     * The fingerprint of the file the values were last read from as constants,
+     * {@link ClassFiles#MISSING} if they were last read by loading the class.
+     */
+    private long constantsFingerprint = ClassFiles.MISSING;
 
     /**
      * Read the configuration data from a class according to {@link URLClassLoader} parameters.
@@ -35,13 +66,112 @@ public class URLClassVariableConfigurationReader<C> extends ChangingVariableConf
      * @param fieldFilter the filter to decide if a field should be used to provide configuration data.
      */
     protected URLClassVariableConfigurationReader(URL url, String className, Predicate<Field> fieldFilter) {
-        super(() -> {
-            try {
-                // since all references to the loader and class will be GCed the class should be unloaded
-                return new URLClassLoader(new URL[]{url}).loadClass(className);
-            } catch (ClassNotFoundException e) {
-                throw new ConfigurationCodeLoaderException("Class: \"" + className + "\" not found in URL: \"" + url + "\"", e);
-            }
-        }, fieldFilter);
+        this(new URLClassLoaderGenerations(url), className, fieldFilter);
+    }
+
+    /**
+     * Read the configuration data from a class loaded through class loaders shared with other readers.
+     *
+     * @param generations the class loader generations to load the class through.
+     * @param className   the class name to load the class for.
+     * @param fieldFilter the filter to decide if a field should be used to provide configuration data.
+     * @see URLClassLoaderGenerations#newReader(String, Predicate)
+     */
+    protected URLClassVariableConfigurationReader(URLClassLoaderGenerations generations, String className, Predicate<Field> fieldFilter) {
+        super(new ClassSupplier(generations, className), fieldFilter);
+        this.generations = generations;
+        this.className = className;
+        this.constantsReadable = fieldFilter == null || fieldFilter == VariableConfigurationReader.DEFAULT_FIELD_FILTER;
+    }
+
+    /**
+     * Get the class loader generations the class is loaded through,
+     * for tracking how many are retained or limiting them.
+     *
+     * @return the class loader generations.
+     */
+    public URLClassLoaderGenerations getGenerations() {
+        return this.generations;
+    }
+
+    @Override
+    public ConfigurationResults<C> readValues() {
+        Map<String, Object> constants = this.readConstants();
+        if (constants == null) {
+            return super.readValues();
+        }
+        return new FieldDiff<C>().readAll(constants);
+    }
+
+    @Override
+    protected ConfigurationResults<C> readInitialValues() {
+        long fingerprint = this.constantsReadable ? this.generations.fingerprintClassFile(this.className) : ClassFiles.MISSING;
+        Map<String, Object> constants = this.readConstants();
+        if (constants == null) {
+            this.constantsFingerprint = ClassFiles.MISSING;
+            return super.readInitialValues();
+        }
+        this.constantsFingerprint = fingerprint;
+        return this.getDiff().readAll(constants);
+    }
+
+    @Override
+    protected ConfigurationResults<C> readChangedValues() {
+        long fingerprint = this.constantsReadable ? this.generations.fingerprintClassFile(this.className) : ClassFiles.MISSING;
+        if (fingerprint != ClassFiles.MISSING && fingerprint == this.constantsFingerprint) {
+            return ConfigurationResults.empty();// the constants were read from the same file
+        }
+        Map<String, Object> constants = this.readConstants();
+        if (constants == null) {
+            this.constantsFingerprint = ClassFiles.MISSING;
+            return super.readChangedValues();
+        }
+        this.constantsFingerprint = fingerprint;
+        return this.getDiff().readChanges(constants);
+    }
+
+    /**
+     * Read the values of the fields from the class file if they are all constants.
+     *
+     * @return the values by field name, null if the class must be loaded to read them.
+     */
+    private Map<String, Object> readConstants() {
+        if (!this.constantsReadable) {
+            return null;
+        }
+        ByteBuffer classFile = this.generations.readClassFile(this.className);
+        if (classFile == null) {
+            return null;
+        }
+        try {
+            return ClassFileConstants.readConstants(classFile, CONFIGURATION_DESCRIPTOR);
+        } catch (IllegalArgumentException e) {
+            return null;// loading the class reports the problem
+        }
+    }
+
+    /**
+     * Loads the class through a {@link URLClassLoaderGenerations}, reusing the previously loaded class
+     * when the fingerprint of the file it was loaded from is unchanged.
+     */
+    static class ClassSupplier implements Supplier<Class<?>> {
+        private final URLClassLoaderGenerations generations;
+        private final String className;
+
+        /**
+         * The generation the class was last loaded from, null if none was loaded.
+         */
+        private URLClassLoaderGenerations.Generation generation;
+
+        ClassSupplier(URLClassLoaderGenerations generations, String className) {
+            this.generations = generations;
+            this.className = className;
+        }
+
+        @Override
+        public synchronized Class<?> get() {
+            this.generation = this.generations.acquire(this.className, this.generation);
+            return this.generation.getLoadedClass(this.className);
+        }
     }
 }
@@ -1,6 +1,5 @@
 package com.github.nija123098.configurationcodeloader.reader;
 
-import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
 import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
 
 import java.lang.annotation.ElementType;
@@ -8,11 +7,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Field;
-import java.util.List;
-import java.util.Optional;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * A {@link ConfigurationReader} instance for reading configuration values
@@ -20,6 +15,9 @@ import java.util.stream.Stream;
  * <p>
  * This class if built without concept of unsetting configuration values
  * as a class definition's fields are constant over the lifetime of the definition.
+ * <p>
+ * Member fields of objects changed in place can be tracked with a {@link DirtyFieldTracker},
+ * in which case a reload only reads the fields marked dirty since the previous reload.
  *
  * @param <C> the base type of any variables produced by this class.
  *            Only guaranteed as long as the {@link Class} configured as the source and {@link Predicate<Field>}
@@ -41,7 +39,7 @@ public class VariableConfigurationReader<C> extends ReloadRequiredConfigurationR
      * <p>
      * Filters for any fields with the {@link Configuration} annotation.
      */
-    private static final Predicate<Field> DEFAULT_FIELD_FILTER = field -> field.isAnnotationPresent(Configuration.class);
+    static final Predicate<Field> DEFAULT_FIELD_FILTER = field -> field.isAnnotationPresent(Configuration.class);
 
     /**
      * The object to get the value from if a member field,
@@ -50,9 +48,29 @@ public class VariableConfigurationReader<C> extends ReloadRequiredConfigurationR
     private final Object sourceObject;
 
     /**
-     * The list of fields to read.
+     * The class to read fields of.
      */
-    private final List<Field> fields;
+    private final Class<?> clazz;
+
+    /**
+     * The filter to decide if a field should be used to provide configuration data.
+     */
+    private final Predicate<Field> fieldFilter;
+
+    /**
+     * The accessors for the fields to read, resolved on the first read.
+     */
+    private volatile FieldAccessors accessors;
+
+    /**
+     * The previous values of the fields for taking the difference on reload.
+     */
+    private final FieldDiff<C> diff = new FieldDiff<>();
+
+    /**
+     * The tracker of fields written since the previous read, null if all fields are read on reload.
+     */
+    private final DirtyFieldTracker tracker;
 
     /**
      * Read configuration data from the provided {@link Class}
@@ -86,23 +104,58 @@ public class VariableConfigurationReader<C> extends ReloadRequiredConfigurationR
      * @param <S>          the type of the provided class.
      */
     public <S> VariableConfigurationReader(Class<S> clazz, S sourceObject, Predicate<Field> fieldFilter) {
+        this(clazz, sourceObject, fieldFilter, null);
+    }
+
+    /**
+     * Read configuration data from the provided variable from the type {@link Class},
+     * only reading the fields marked dirty in the tracker on reload.
+     *
+     * @param clazz        the class to read configuration data from.
+     * @param sourceObject the object to get associated values from member fields.
+     * @param fieldFilter  the filter to decide if a field should be used to provide configuration data.
+     * @param tracker      the tracker the source object marks written fields in, null to read all fields on reload.
+     * @param <S>          the type of the provided class.
+     */
+    public <S> VariableConfigurationReader(Class<S> clazz, S sourceObject, Predicate<Field> fieldFilter, DirtyFieldTracker tracker) {
         this.sourceObject = sourceObject;
-        this.fields = Stream.of(clazz.getDeclaredFields())
-                .filter(fieldFilter == null ? DEFAULT_FIELD_FILTER : fieldFilter)
-                .collect(Collectors.toList());
+        this.clazz = clazz;
+        this.fieldFilter = fieldFilter == null ? DEFAULT_FIELD_FILTER : fieldFilter;
+        this.tracker = tracker;
     }
 
-    @SuppressWarnings("unchecked")// The specifier of the class must guarantee that variables are of type C
     @Override
     public ConfigurationResults<C> readValues() {
-        ConfigurationResults<C> map = new ConfigurationResults<>(this.fields.size() + 1, 1);
-        this.fields.forEach(field -> {
-            try {
-                map.put(field.getName(), (Optional<C>) Optional.ofNullable(field.get(this.sourceObject)));
-            } catch (IllegalAccessException e) {
-                throw new ConfigurationCodeLoaderException("Configuration variable not accessible: \"" + field.getDeclaringClass() + "#" + field.getName() + "\"", e);
-            }
-        });
-        return map;
+        return this.getAccessors().read(this.sourceObject);
+    }
+
+    @Override
+    protected ConfigurationResults<C> readInitialValues() {
+        if (this.tracker != null) {
+            this.tracker.clear();// fields written from here on are read by the next reload
+        }
+        return this.diff.readAll(this.getAccessors(), this.sourceObject);
+    }
+
+    @Override
+    protected ConfigurationResults<C> readChangedValues() {
+        if (this.tracker != null) {
+            return this.diff.readDirty(this.getAccessors(), this.sourceObject, this.tracker);
+        }
+        return this.diff.readChanges(this.getAccessors(), this.sourceObject);
+    }
+
+    /**
+     * Get the accessors for the fields to read, resolving them if this is the first read.
+     *
+     * @return the accessors.
+     */
+    FieldAccessors getAccessors() {
+        FieldAccessors accessors = this.accessors;
+        if (accessors == null) {
+            accessors = FieldAccessors.of(this.clazz, this.fieldFilter);
+            this.accessors = accessors;
+        }
+        return accessors;
     }
 }
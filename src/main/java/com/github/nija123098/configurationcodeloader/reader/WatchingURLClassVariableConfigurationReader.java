@@ -0,0 +1,242 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * A {@link URLClassVariableConfigurationReader} for file URLs
+ * which reloads by itself when the class file changes.
+ * <p>
+ * The directory of the class file is watched with a {@link WatchService}.
+ * Bursts of file events are debounced and a reload only occurs
+ * if the contents of the class file differ from when it was last read.
+ *
+ * @param <C> the base type of any variables produced by this class.
+ *            Only guaranteed as long as the {@link Class} configured as the source and {@link Predicate<Field>}
+ *            only results in fields who's variable values only are this type.
+ */
+public class WatchingURLClassVariableConfigurationReader<C> extends URLClassVariableConfigurationReader<C> {
+    /**
+     * The default time in milliseconds to wait for file events to stop before reloading.
+     */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 100;
+
+    /**
+     * The class file to watch.
+     */
+    private final Path classFile;
+
+    /**
+     * The time in milliseconds to wait for file events to stop before reloading.
+     */
+    private final long debounceMillis;
+
+    /**
+     * The fingerprint of the class file as of the last read.
+     */
+    private volatile long fingerprint = ClassFiles.MISSING;
+
+    /**
+     * The service watching the class file's directory, null when not started.
+     */
+    private WatchService watchService;
+
+    /**
+     * Read and watch the configuration data from a class in a class directory.
+     *
+     * @param url       the file URL of the class directory.
+     * @param className the class name to load the class for.
+     */
+    public WatchingURLClassVariableConfigurationReader(URL url, String className) {
+        this(url, className, null);
+    }
+
+    /**
+     * Read and watch the configuration data from a class in a class directory.
+     *
+     * @param url         the file URL of the class directory.
+     * @param className   the class name to load the class for.
+     * @param fieldFilter the filter to decide if a field should be used to provide configuration data.
+     */
+    public WatchingURLClassVariableConfigurationReader(URL url, String className, Predicate<Field> fieldFilter) {
+        this(url, className, fieldFilter, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Read and watch the configuration data from a class in a class directory.
+     *
+     * @param url            the file URL of the class directory.
+     * @param className      the class name to load the class for.
+     * @param fieldFilter    the filter to decide if a field should be used to provide configuration data.
+     * @param debounceMillis the time in milliseconds to wait for file events to stop before reloading.
+     */
+    public WatchingURLClassVariableConfigurationReader(URL url, String className, Predicate<Field> fieldFilter, long debounceMillis) {
+        super(url, className, fieldFilter);
+        this.classFile = ClassFiles.locate(ClassFiles.toDirectory(url), className);
+        this.debounceMillis = debounceMillis;
+    }
+
+    @Override
+    public void startProviding() {
+        WatchService watchService;
+        synchronized (this) {
+            if (this.watchService != null) {
+                return;
+            }
+            try {
+                this.watchService = this.classFile.getFileSystem().newWatchService();
+                this.register(this.watchService);
+            } catch (IOException e) {
+                this.closeWatchService();
+                throw new ConfigurationCodeLoaderException("Unable to watch class file: \"" + this.classFile + "\"", e);
+            }
+            watchService = this.watchService;
+            this.fingerprint = ClassFiles.fingerprint(this.classFile);
+        }
+        try {
+            super.startProviding();// outside the monitor so stopping is not blocked by the read
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (this.watchService == watchService) {
+                    this.closeWatchService();
+                }
+            }
+            throw e;
+        }
+        synchronized (this) {
+            if (this.watchService != watchService) {
+                if (this.watchService == null) {
+                    super.stopProviding();// stopped while starting
+                }
+                return;
+            }
+            Thread thread = new Thread(() -> this.watch(watchService), "configuration-watcher-" + this.classFile.getFileName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public synchronized void stopProviding() {
+        this.closeWatchService();
+        super.stopProviding();
+    }
+
+    /**
+     * Wait for events relating to the class file and reload when its contents change.
+     *
+     * @param watchService the service to take events from, the method returns when it is closed.
+     */
+    private void watch(WatchService watchService) {
+        try {
+            while (true) {
+                if (!this.isRelevant(watchService, watchService.take())) {
+                    continue;
+                }
+                WatchKey key;
+                while ((key = watchService.poll(this.debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    this.isRelevant(watchService, key);
+                }
+                long current = ClassFiles.fingerprint(this.classFile);
+                if (current != this.fingerprint) {
+                    this.fingerprint = current;
+                    try {
+                        this.reload();
+                    } catch (RuntimeException e) {// report and keep watching, the next change may fix it
+                        Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // stopped providing
+        } catch (IOException e) {// the directory can no longer be watched, report and stop watching
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, new ConfigurationCodeLoaderException("Unable to watch class file: \"" + this.classFile + "\"", e));
+        }
+    }
+
+    /**
+     * Consume the events of the key and reset it,
+     * registering the directory again if the key is no longer valid, such as after the directory was recreated.
+     *
+     * @param watchService the service the key is from.
+     * @param key          the key to consume the events of.
+     * @return if any of the events may relate to the class file.
+     * @throws IOException          if the directory can not be registered again.
+     * @throws InterruptedException if interrupted while waiting for the directory to be recreated.
+     */
+    private boolean isRelevant(WatchService watchService, WatchKey key) throws IOException, InterruptedException {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || this.classFile.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        if (!key.reset()) {
+            this.reregister(watchService);
+            relevant = true;// the class file may have been replaced along with the directory
+        }
+        return relevant;
+    }
+
+    /**
+     * Register the directory of the class file again, waiting for it to be recreated if it was deleted.
+     * Waiting stops with a {@link ClosedWatchServiceException} once the watch service is closed.
+     *
+     * @param watchService the service to register with.
+     * @throws IOException          if the directory can not be watched.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private void reregister(WatchService watchService) throws IOException, InterruptedException {
+        while (true) {
+            try {
+                this.register(watchService);
+                return;
+            } catch (NoSuchFileException e) {
+                watchService.poll(this.debounceMillis, TimeUnit.MILLISECONDS);// no key is registered, so this only waits
+            }
+        }
+    }
+
+    /**
+     * Register the directory of the class file with a watch service.
+     *
+     * @param watchService the service to register with.
+     * @throws IOException if the directory can not be watched.
+     */
+    private void register(WatchService watchService) throws IOException {
+        this.classFile.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Close the watch service if one is open.
+     */
+    private void closeWatchService() {
+        if (this.watchService == null) {
+            return;
+        }
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            throw new ConfigurationCodeLoaderException("Unable to stop watching class file: \"" + this.classFile + "\"", e);
+        } finally {
+            this.watchService = null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.github.nija123098.configurationcodeloader.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * A listener wrapper which delivers submitted values to the wrapped listener on an {@link Executor}
+ * so the submitting thread only pays for queueing the value.
+ * <p>
+ * Values submitted while a delivery is pending are queued up to a capacity,
+ * past which the {@link Backpressure} decides what happens to the excess.
+ * If a merge function is provided all queued values are combined into one before delivery.
+ * <p>
+ * Register the instance with {@link Register#registerListener(Consumer)}
+ * and deregister it with the same instance.
+ *
+ * @param <T> the type to listen to.
+ */
+public class AsyncListener<T> implements Consumer<T> {
+    /**
+     * The default maximum number of values to queue.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The action to take when a value is submitted while the queue is at capacity.
+     */
+    public enum Backpressure {
+        /**
+         * Discard the oldest queued value to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Merge the new value into the most recently queued value,
+         * this requires a merge function.
+         */
+        MERGE
+    }
+
+    /**
+     * The listener to deliver to.
+     */
+    private final Consumer<T> listener;
+
+    /**
+     * The executor to deliver on.
+     */
+    private final Executor executor;
+
+    /**
+     * The function to combine an earlier and later value into one,
+     * null if values should not be combined.
+     */
+    private final BinaryOperator<T> merger;
+
+    /**
+     * The maximum number of values to queue.
+     */
+    private final int capacity;
+
+    /**
+     * The action to take when the queue is at capacity.
+     */
+    private final Backpressure backpressure;
+
+    /**
+     * The values waiting for delivery, guarded by this instance's monitor.
+     */
+    private final Deque<T> pending = new ArrayDeque<>();
+
+    /**
+     * If a delivery task has been given to the executor and not yet finished,
+     * guarded by this instance's monitor.
+     */
+    private boolean scheduled;
+
+    /**
+     * Deliver values to the listener on the executor,
+     * delivering each value individually and dropping the oldest past the {@link AsyncListener#DEFAULT_CAPACITY}.
+     *
+     * @param listener the listener to deliver to.
+     * @param executor the executor to deliver on.
+     */
+    public AsyncListener(Consumer<T> listener, Executor executor) {
+        this(listener, executor, null, DEFAULT_CAPACITY, Backpressure.DROP_OLDEST);
+    }
+
+    /**
+     * Deliver values to the listener on the executor,
+     * combining all values queued by the time of a delivery into one.
+     *
+     * @param listener the listener to deliver to.
+     * @param executor the executor to deliver on.
+     * @param merger   the function to combine an earlier and later value into one.
+     */
+    public AsyncListener(Consumer<T> listener, Executor executor, BinaryOperator<T> merger) {
+        this(listener, executor, merger, DEFAULT_CAPACITY, Backpressure.MERGE);
+    }
+
+    /**
+     * Deliver values to the listener on the executor.
+     *
+     * @param listener     the listener to deliver to.
+     * @param executor     the executor to deliver on.
+     * @param merger       the function to combine an earlier and later value into one,
+     *                     null if values should be delivered individually.
+     * @param capacity     the maximum number of values to queue.
+     * @param backpressure the action to take when the queue is at capacity.
+     */
+    public AsyncListener(Consumer<T> listener, Executor executor, BinaryOperator<T> merger, int capacity, Backpressure backpressure) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (backpressure == Backpressure.MERGE && merger == null) {
+            throw new IllegalArgumentException("Merge backpressure requires a merge function");
+        }
+        this.listener = listener;
+        this.executor = executor;
+        this.merger = merger;
+        this.capacity = capacity;
+        this.backpressure = backpressure;
+    }
+
+    @Override
+    public void accept(T t) {
+        synchronized (this) {
+            if (this.pending.size() < this.capacity) {
+                this.pending.addLast(t);
+            } else if (this.backpressure == Backpressure.MERGE) {
+                this.pending.addLast(this.merger.apply(this.pending.pollLast(), t));
+            } else {
+                this.pending.pollFirst();
+                this.pending.addLast(t);
+            }
+            if (this.scheduled) {
+                return;
+            }
+            this.scheduled = true;
+        }
+        this.schedule();
+    }
+
+    /**
+     * Submit a drain to the executor, allowing a later value to schedule one if the executor refuses it.
+     * Queued values stay queued until then.
+     */
+    private void schedule() {
+        try {
+            this.executor.execute(this::drain);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                this.scheduled = false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Deliver queued values until there are none left.
+     */
+    private void drain() {
+        T next;
+        while ((next = this.take()) != null) {
+            try {
+                this.listener.accept(next);
+            } catch (RuntimeException e) {
+                try {
+                    this.schedule();// continue delivering the rest after the executor handles the exception
+                } catch (RuntimeException | Error scheduleException) {
+                    e.addSuppressed(scheduleException);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Take the next value to deliver, combining all queued values if there is a merge function.
+     *
+     * @return the value to deliver, or null if there is none.
+     */
+    private synchronized T take() {
+        T next = this.pending.pollFirst();
+        if (next == null) {
+            this.scheduled = false;
+            return null;
+        }
+        if (this.merger != null) {
+            while (!this.pending.isEmpty()) {
+                next = this.merger.apply(next, this.pending.pollFirst());
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Get the number of values waiting for delivery.
+     *
+     * @return the number of queued values.
+     */
+    public synchronized int getPendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Make an {@link ExecutorService} suitable for delivering to listeners.
+     * <p>
+     * Uses a virtual thread per task executor when running on a JVM that supports them,
+     * otherwise a cached pool of daemon threads.
+     *
+     * @return a new executor.
+     */
+    public static ExecutorService newDeliveryExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {// virtual threads are not available
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "configuration-delivery");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
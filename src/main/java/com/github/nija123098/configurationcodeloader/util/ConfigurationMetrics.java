@@ -0,0 +1,51 @@
+package com.github.nija123098.configurationcodeloader.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Receives timings of reads, class loads and listener dispatch from {@link Register} instances,
+ * including configuration readers.
+ * <p>
+ * All methods do nothing by default so implementations only override what they record.
+ * Instances using {@link ConfigurationMetrics#NONE} skip measuring entirely.
+ * Methods may be called concurrently from multiple threads.
+ */
+public interface ConfigurationMetrics {
+    /**
+     * The instance which records nothing, used when metrics are disabled.
+     */
+    ConfigurationMetrics NONE = new ConfigurationMetrics() {
+    };
+
+    /**
+     * Record a read of configuration values, including taking the difference with the previous read.
+     *
+     * @param source       the reader which read.
+     * @param nanos        the time the read took in nanoseconds.
+     * @param changedCount the number of configurations which changed.
+     */
+    default void recordRead(Object source, long nanos, int changedCount) {
+    }
+
+    /**
+     * Record loading or compiling a class to read configuration values from.
+     *
+     * @param source the reader which loaded the class.
+     * @param nanos  the time the load took in nanoseconds.
+     */
+    default void recordClassLoad(Object source, long nanos) {
+    }
+
+    /**
+     * Record the delivery of a submission to a single listener.
+     * <p>
+     * For a {@code ConfigurationCodeLoader} this includes listeners subscribed to specific names and listeners of generations,
+     * all recorded with the loader as the source.
+     *
+     * @param source   the register which submitted.
+     * @param listener the listener delivered to.
+     * @param nanos    the time the listener took in nanoseconds.
+     */
+    default void recordDispatch(Object source, Consumer<?> listener, long nanos) {
+    }
+}
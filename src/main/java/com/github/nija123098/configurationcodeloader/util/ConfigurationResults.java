@@ -1,23 +1,437 @@
 package com.github.nija123098.configurationcodeloader.util;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
-public class ConfigurationResults<C> extends HashMap<String, Optional<C>> {
-    public ConfigurationResults(int initialCapacity, float loadFactor) {
-        super(initialCapacity, loadFactor);
+/**
+ * An immutable map of configuration names to their values,
+ * with an empty {@link Optional} representing an unset configuration.
+ * <p>
+ * Names are held in a sorted array with the values in a parallel array,
+ * unset values are stored as a sentinel and {@link Optional}s are only made when requested through the {@link Map} methods.
+ * Use {@link ConfigurationResults#getValue(String)} and {@link ConfigurationResults#isUnset(String)}
+ * to read values without that allocation.
+ * <p>
+ * As instances can not be changed a single instance is safely shared between all listeners.
+ * Make instances with a {@link Builder}.
+ *
+ * @param <C> the base type of the configuration values.
+ */
+public final class ConfigurationResults<C> extends AbstractMap<String, Optional<C>> {
+    /**
+     * The value stored for unset configurations.
+     */
+    private static final Object UNSET = new Object();
+
+    /**
+     * The shared instance without any configurations.
+     */
+    private static final ConfigurationResults<?> EMPTY = new ConfigurationResults<>(new String[0], new Object[0]);
+
+    /**
+     * The size at and below which arrays are sorted by insertion.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * The configuration names in ascending order.
+     */
+    private final String[] names;
+
+    /**
+     * The configuration values in the same order as their names, {@link ConfigurationResults#UNSET} if unset.
+     */
+    private final Object[] values;
+
+    /**
+     * The lazily made entry set view.
+     */
+    private Set<Entry<String, Optional<C>>> entrySet;
+
+    private ConfigurationResults(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    /**
+     * Copy the configurations of a map.
+     *
+     * @param m the map to copy, with null or empty values representing unset configurations.
+     */
+    public ConfigurationResults(Map<? extends String, ? extends Optional<C>> m) {
+        Builder<C> builder = new Builder<>(m.size());
+        m.forEach(builder::put);
+        ConfigurationResults<C> built = builder.build();
+        this.names = built.names;
+        this.values = built.values;
     }
 
-    public ConfigurationResults(int initialCapacity) {
-        super(initialCapacity);
+    /**
+     * Get the shared instance without any configurations.
+     *
+     * @param <C> the base type of the configuration values.
+     * @return the empty instance.
+     */
+    @SuppressWarnings("unchecked")// Contains no values of any type
+    public static <C> ConfigurationResults<C> empty() {
+        return (ConfigurationResults<C>) EMPTY;
     }
 
-    public ConfigurationResults() {
-        super();
+    /**
+     * Combine two results in order, with the values of the later results
+     * replacing those of the earlier for configurations present in both.
+     *
+     * @param earlier the results that occurred first.
+     * @param later   the results that occurred second.
+     * @param <C>     the base type of the configuration values.
+     * @return the combined results.
+     */
+    public static <C> ConfigurationResults<C> merge(ConfigurationResults<C> earlier, ConfigurationResults<C> later) {
+        if (earlier.isEmpty()) {
+            return later;
+        }
+        if (later.isEmpty()) {
+            return earlier;
+        }
+        String[] names = new String[earlier.names.length + later.names.length];
+        Object[] values = new Object[names.length];
+        int e = 0, l = 0, size = 0;
+        while (e < earlier.names.length || l < later.names.length) {
+            int comparison = e == earlier.names.length ? 1 : l == later.names.length ? -1 : earlier.names[e].compareTo(later.names[l]);
+            if (comparison < 0) {
+                names[size] = earlier.names[e];
+                values[size++] = earlier.values[e++];
+            } else {
+                if (comparison == 0) {
+                    e++;
+                }
+                names[size] = later.names[l];
+                values[size++] = later.values[l++];
+            }
+        }
+        return new ConfigurationResults<>(trim(names, size), trim(values, size));
     }
 
-    public ConfigurationResults(Map<? extends String, ? extends Optional<C>> m) {
-        super(m);
+    /**
+     * Get the value of a configuration without wrapping it in an {@link Optional}.
+     *
+     * @param name the name of the configuration.
+     * @return the value, or null if the configuration is unset or not present.
+     */
+    @SuppressWarnings("unchecked")// Only values of C are stored
+    public C getValue(String name) {
+        int index = this.indexOf(name);
+        if (index < 0 || this.values[index] == UNSET) {
+            return null;
+        }
+        return (C) this.values[index];
+    }
+
+    /**
+     * Check if the results contain the configuration as unset.
+     *
+     * @param name the name of the configuration.
+     * @return if the configuration is present and unset.
+     */
+    public boolean isUnset(String name) {
+        int index = this.indexOf(name);
+        return index >= 0 && this.values[index] == UNSET;
+    }
+
+    /**
+     * Get the name at an index in ascending order.
+     *
+     * @param index the index of the configuration.
+     * @return the name of the configuration.
+     */
+    public String getName(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * Get the value at an index in ascending order of names without wrapping it in an {@link Optional}.
+     *
+     * @param index the index of the configuration.
+     * @return the value, or null if the configuration is unset.
+     */
+    @SuppressWarnings("unchecked")// Only values of C are stored
+    public C getValue(int index) {
+        return this.values[index] == UNSET ? null : (C) this.values[index];
+    }
+
+    @Override
+    public int size() {
+        return this.names.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.names.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && this.indexOf((String) key) >= 0;
+    }
+
+    @Override
+    public Optional<C> get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int index = this.indexOf((String) key);
+        return index < 0 ? null : this.optional(index);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Optional<C>> action) {
+        for (int i = 0; i < this.names.length; i++) {
+            action.accept(this.names[i], this.optional(i));
+        }
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return Arrays.asList(names).iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return names.length;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, Optional<C>>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new AbstractSet<Entry<String, Optional<C>>>() {
+                @Override
+                public Iterator<Entry<String, Optional<C>>> iterator() {
+                    return new Iterator<Entry<String, Optional<C>>>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.index < names.length;
+                        }
+
+                        @Override
+                        public Entry<String, Optional<C>> next() {
+                            if (this.index >= names.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = this.index++;
+                            return new SimpleImmutableEntry<>(names[i], optional(i));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return names.length;
+                }
+            };
+        }
+        return this.entrySet;
+    }
+
+    /**
+     * Get the value at an index as an {@link Optional}.
+     *
+     * @param index the index of the configuration.
+     * @return the value, empty if unset.
+     */
+    @SuppressWarnings("unchecked")// Only values of C are stored
+    private Optional<C> optional(int index) {
+        return this.values[index] == UNSET ? Optional.empty() : Optional.of((C) this.values[index]);
+    }
+
+    /**
+     * Find the index of a name.
+     *
+     * @param name the name to find.
+     * @return the index, or a negative number if not present.
+     */
+    private int indexOf(String name) {
+        int low = 0, high = this.names.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            String candidate = this.names[middle];
+            if (candidate == name) {// field names are interned so this is the common match
+                return middle;
+            }
+            int comparison = candidate.compareTo(name);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static <T> T[] trim(T[] array, int size) {
+        return array.length == size ? array : Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Collects configurations to make a {@link ConfigurationResults}.
+     * <p>
+     * If a configuration is added more than once the last value is used.
+     *
+     * @param <C> the base type of the configuration values.
+     */
+    public static final class Builder<C> {
+        private String[] names;
+        private Object[] values;
+        private int size;
+
+        /**
+         * Make a builder expecting a number of configurations.
+         *
+         * @param expectedSize the number of configurations expected to be added.
+         */
+        public Builder(int expectedSize) {
+            this.names = new String[Math.max(expectedSize, 1)];
+            this.values = new Object[this.names.length];
+        }
+
+        public Builder() {
+            this(8);
+        }
+
+        /**
+         * Add a set configuration, or unset if the value is null.
+         *
+         * @param name  the name of the configuration.
+         * @param value the value of the configuration.
+         * @return this builder.
+         */
+        public Builder<C> set(String name, C value) {
+            return this.add(name, value == null ? UNSET : value);
+        }
+
+        /**
+         * Add an unset configuration.
+         *
+         * @param name the name of the configuration.
+         * @return this builder.
+         */
+        public Builder<C> unset(String name) {
+            return this.add(name, UNSET);
+        }
+
+        /**
+         * Add a configuration in the {@link Map} representation.
+         *
+         * @param name  the name of the configuration.
+         * @param value the value of the configuration, null or empty if unset.
+         * @return this builder.
+         */
+        public Builder<C> put(String name, Optional<? extends C> value) {
+            return this.set(name, value == null ? null : value.orElse(null));
+        }
+
+        /**
+         * Get the number of configurations added, including duplicates.
+         *
+         * @return the number of added configurations.
+         */
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Make the results, after which this builder should not be used.
+         *
+         * @return the results.
+         */
+        public ConfigurationResults<C> build() {
+            if (this.size == 0) {
+                return empty();
+            }
+            sort(this.names, this.values, this.size);
+            int unique = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (unique > 0 && this.names[unique - 1].equals(this.names[i])) {
+                    unique--;// the sort is stable so the later value replaces the earlier
+                }
+                this.names[unique] = this.names[i];
+                this.values[unique++] = this.values[i];
+            }
+            return new ConfigurationResults<>(trim(this.names, unique), trim(this.values, unique));
+        }
+
+        private Builder<C> add(String name, Object value) {
+            Objects.requireNonNull(name, "name");
+            if (this.size == this.names.length) {
+                this.names = Arrays.copyOf(this.names, this.size * 2);
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.names[this.size] = name;
+            this.values[this.size++] = value;
+            return this;
+        }
+
+        /**
+         * Stably sort the names with their parallel values.
+         */
+        private static void sort(String[] names, Object[] values, int size) {
+            if (size <= INSERTION_SORT_THRESHOLD) {
+                for (int i = 1; i < size; i++) {
+                    String name = names[i];
+                    Object value = values[i];
+                    int j = i - 1;
+                    for (; j >= 0 && names[j].compareTo(name) > 0; j--) {
+                        names[j + 1] = names[j];
+                        values[j + 1] = values[j];
+                    }
+                    names[j + 1] = name;
+                    values[j + 1] = value;
+                }
+                return;
+            }
+            mergeSort(names, values, names.clone(), values.clone(), 0, size);
+        }
+
+        /**
+         * Stably sort a range of the names with their parallel values, using the source arrays as scratch space.
+         */
+        private static void mergeSort(String[] names, Object[] values, String[] sourceNames, Object[] sourceValues, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            mergeSort(sourceNames, sourceValues, names, values, from, middle);
+            mergeSort(sourceNames, sourceValues, names, values, middle, to);
+            for (int i = from, l = from, r = middle; i < to; i++) {
+                if (r >= to || (l < middle && sourceNames[l].compareTo(sourceNames[r]) <= 0)) {
+                    names[i] = sourceNames[l];
+                    values[i] = sourceValues[l++];
+                } else {
+                    names[i] = sourceNames[r];
+                    values[i] = sourceValues[r++];
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,215 @@
+package com.github.nija123098.configurationcodeloader.util;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A {@link ConfigurationMetrics} which keeps histograms of read, class load and dispatch timings
+ * and exposes them as a JMX MBean.
+ * <p>
+ * Listeners taking at least the slow listener threshold to handle a submission are counted,
+ * and the slowest one is reported by class name.
+ * A single instance may be shared by many readers and loaders to report their combined timings.
+ */
+public class JmxConfigurationMetrics implements ConfigurationMetrics, JmxConfigurationMetricsMBean {
+    /**
+     * The default slow listener threshold.
+     */
+    public static final long DEFAULT_SLOW_LISTENER_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final LatencyHistogram reads = new LatencyHistogram();
+    private final LatencyHistogram classLoads = new LatencyHistogram();
+    private final LatencyHistogram dispatches = new LatencyHistogram();
+    private final LongAdder changedKeys = new LongAdder();
+    private final LongAdder slowListeners = new LongAdder();
+    private volatile int lastChangedKeyCount;
+    private volatile long slowListenerThresholdNanos = DEFAULT_SLOW_LISTENER_THRESHOLD_NANOS;
+
+    /**
+     * The class name of the slowest listener and its time, guarded by this instance.
+     */
+    private String slowestListener;
+    private long slowestListenerNanos;
+
+    /**
+     * The name this instance is registered under, null if not registered.
+     */
+    private ObjectName objectName;
+
+    @Override
+    public void recordRead(Object source, long nanos, int changedCount) {
+        this.reads.record(nanos);
+        this.changedKeys.add(changedCount);
+        this.lastChangedKeyCount = changedCount;
+    }
+
+    @Override
+    public void recordClassLoad(Object source, long nanos) {
+        this.classLoads.record(nanos);
+    }
+
+    @Override
+    public void recordDispatch(Object source, Consumer<?> listener, long nanos) {
+        this.dispatches.record(nanos);
+        if (nanos >= this.slowListenerThresholdNanos) {
+            this.slowListeners.increment();
+            synchronized (this) {
+                if (nanos > this.slowestListenerNanos) {
+                    this.slowestListenerNanos = nanos;
+                    this.slowestListener = listener.getClass().getName();
+                }
+            }
+        }
+    }
+
+    /**
+     * Register this instance with the platform MBean server.
+     *
+     * @param name the name to distinguish this instance from others.
+     * @return the object name this instance was registered under.
+     */
+    public synchronized ObjectName register(String name) {
+        if (this.objectName != null) {
+            throw new ConfigurationCodeLoaderException("Already registered as: \"" + this.objectName + "\"");
+        }
+        try {
+            ObjectName objectName = new ObjectName("com.github.nija123098.configurationcodeloader:type=ConfigurationMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new ConfigurationCodeLoaderException("Unable to register metrics: \"" + name + "\"", e);
+        }
+    }
+
+    /**
+     * Unregister this instance from the platform MBean server if registered.
+     */
+    public synchronized void unregister() {
+        if (this.objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(this.objectName);
+        } catch (JMException e) {
+            throw new ConfigurationCodeLoaderException("Unable to unregister metrics: \"" + this.objectName + "\"", e);
+        } finally {
+            this.objectName = null;
+        }
+    }
+
+    @Override
+    public long getReadCount() {
+        return this.reads.getCount();
+    }
+
+    @Override
+    public long getReadMeanNanos() {
+        return this.reads.getMean();
+    }
+
+    @Override
+    public long getReadMedianNanos() {
+        return this.reads.getPercentile(.5);
+    }
+
+    @Override
+    public long getRead99thPercentileNanos() {
+        return this.reads.getPercentile(.99);
+    }
+
+    @Override
+    public long getReadMaxNanos() {
+        return this.reads.getMax();
+    }
+
+    @Override
+    public long getChangedKeyCount() {
+        return this.changedKeys.sum();
+    }
+
+    @Override
+    public int getLastChangedKeyCount() {
+        return this.lastChangedKeyCount;
+    }
+
+    @Override
+    public long getClassLoadCount() {
+        return this.classLoads.getCount();
+    }
+
+    @Override
+    public long getClassLoadMeanNanos() {
+        return this.classLoads.getMean();
+    }
+
+    @Override
+    public long getClassLoadMaxNanos() {
+        return this.classLoads.getMax();
+    }
+
+    @Override
+    public long getDispatchCount() {
+        return this.dispatches.getCount();
+    }
+
+    @Override
+    public long getDispatchMeanNanos() {
+        return this.dispatches.getMean();
+    }
+
+    @Override
+    public long getDispatch99thPercentileNanos() {
+        return this.dispatches.getPercentile(.99);
+    }
+
+    @Override
+    public long getDispatchMaxNanos() {
+        return this.dispatches.getMax();
+    }
+
+    @Override
+    public long getSlowListenerThresholdNanos() {
+        return this.slowListenerThresholdNanos;
+    }
+
+    @Override
+    public void setSlowListenerThresholdNanos(long nanos) {
+        this.slowListenerThresholdNanos = nanos;
+    }
+
+    @Override
+    public long getSlowListenerCount() {
+        return this.slowListeners.sum();
+    }
+
+    @Override
+    public synchronized String getSlowestListener() {
+        return this.slowestListener;
+    }
+
+    @Override
+    public synchronized long getSlowestListenerNanos() {
+        return this.slowestListenerNanos;
+    }
+
+    @Override
+    public void reset() {
+        this.reads.reset();
+        this.classLoads.reset();
+        this.dispatches.reset();
+        this.changedKeys.reset();
+        this.slowListeners.reset();
+        this.lastChangedKeyCount = 0;
+        synchronized (this) {
+            this.slowestListener = null;
+            this.slowestListenerNanos = 0;
+        }
+    }
+}
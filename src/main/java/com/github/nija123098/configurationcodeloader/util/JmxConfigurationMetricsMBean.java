@@ -0,0 +1,150 @@
+package com.github.nija123098.configurationcodeloader.util;
+
+/**
+ * The management interface of {@link JmxConfigurationMetrics}.
+ * <p>
+ * Durations are in nanoseconds, percentiles are accurate to within a factor of two.
+ * Unless described as the last, values are cumulative since creation or the last {@link #reset()},
+ * and durations are 0 while nothing has been recorded.
+ */
+public interface JmxConfigurationMetricsMBean {
+    /**
+     * Get the number of reads recorded.
+     *
+     * @return the cumulative count of reads.
+     */
+    long getReadCount();
+
+    /**
+     * Get the mean time a read took.
+     *
+     * @return the mean over all recorded reads, in nanoseconds.
+     */
+    long getReadMeanNanos();
+
+    /**
+     * Get the median time a read took.
+     *
+     * @return the median over all recorded reads, in nanoseconds.
+     */
+    long getReadMedianNanos();
+
+    /**
+     * Get the time 99 percent of reads took at most.
+     *
+     * @return the 99th percentile over all recorded reads, in nanoseconds.
+     */
+    long getRead99thPercentileNanos();
+
+    /**
+     * Get the longest time a read took.
+     *
+     * @return the maximum over all recorded reads, in nanoseconds.
+     */
+    long getReadMaxNanos();
+
+    /**
+     * Get the number of configurations changed by reads.
+     *
+     * @return the cumulative count of changed configurations over all reads.
+     */
+    long getChangedKeyCount();
+
+    /**
+     * Get the number of configurations changed by the most recent read.
+     *
+     * @return the count for the last read only, 0 if none was recorded.
+     */
+    int getLastChangedKeyCount();
+
+    /**
+     * Get the number of class loads and compilations recorded.
+     *
+     * @return the cumulative count of class loads.
+     */
+    long getClassLoadCount();
+
+    /**
+     * Get the mean time a class load took.
+     *
+     * @return the mean over all recorded class loads, in nanoseconds.
+     */
+    long getClassLoadMeanNanos();
+
+    /**
+     * Get the longest time a class load took.
+     *
+     * @return the maximum over all recorded class loads, in nanoseconds.
+     */
+    long getClassLoadMaxNanos();
+
+    /**
+     * Get the number of deliveries to single listeners recorded.
+     *
+     * @return the cumulative count of dispatches.
+     */
+    long getDispatchCount();
+
+    /**
+     * Get the mean time a listener took to handle a delivery.
+     *
+     * @return the mean over all recorded dispatches, in nanoseconds.
+     */
+    long getDispatchMeanNanos();
+
+    /**
+     * Get the time 99 percent of listeners took at most to handle a delivery.
+     *
+     * @return the 99th percentile over all recorded dispatches, in nanoseconds.
+     */
+    long getDispatch99thPercentileNanos();
+
+    /**
+     * Get the longest time a listener took to handle a delivery.
+     *
+     * @return the maximum over all recorded dispatches, in nanoseconds.
+     */
+    long getDispatchMaxNanos();
+
+    /**
+     * Get the time from which a listener handling a delivery is counted as slow.
+     * This is a setting, so it is not cleared by {@link #reset()}.
+     *
+     * @return the threshold in nanoseconds.
+     */
+    long getSlowListenerThresholdNanos();
+
+    /**
+     * Set the time from which a listener handling a delivery is counted as slow.
+     * Only deliveries recorded afterwards are compared against the new threshold.
+     *
+     * @param nanos the threshold in nanoseconds.
+     */
+    void setSlowListenerThresholdNanos(long nanos);
+
+    /**
+     * Get the number of deliveries which took at least the slow listener threshold.
+     *
+     * @return the cumulative count of slow dispatches.
+     */
+    long getSlowListenerCount();
+
+    /**
+     * Get the class name of the listener with the slowest delivery at or above the threshold.
+     *
+     * @return the class name, null if no listener was slow.
+     */
+    String getSlowestListener();
+
+    /**
+     * Get the time the slowest listener took, the maximum over all slow deliveries.
+     *
+     * @return the time in nanoseconds, 0 if no listener was slow.
+     */
+    long getSlowestListenerNanos();
+
+    /**
+     * Clear all recorded counts and timings, keeping the slow listener threshold.
+     */
+    void reset();
+}
@@ -0,0 +1,82 @@
+package com.github.nija123098.configurationcodeloader.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of durations in power of two nanosecond buckets.
+ * <p>
+ * Percentiles are reported as the upper bound of the bucket they fall in,
+ * so are accurate to within a factor of two.
+ */
+final class LatencyHistogram {
+    private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        this.buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(nanos) - (nanos == 0 ? 0 : 1));
+        this.count.increment();
+        this.total.add(nanos);
+        long current;
+        do {
+            current = this.max.get();
+        } while (nanos > current && !this.max.compareAndSet(current, nanos));
+    }
+
+    long getCount() {
+        return this.count.sum();
+    }
+
+    long getMean() {
+        long count = this.count.sum();
+        return count == 0 ? 0 : this.total.sum() / count;
+    }
+
+    long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Get the upper bound of the bucket containing a percentile of durations.
+     *
+     * @param percentile the percentile, between 0 and 1.
+     * @return the duration in nanoseconds, 0 if nothing was recorded.
+     */
+    long getPercentile(double percentile) {
+        long[] counts = new long[Long.SIZE];
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        for (int i = 0; i < counts.length; i++) {
+            rank -= counts[i];
+            if (rank <= 0) {
+                return Math.min(i == Long.SIZE - 1 ? Long.MAX_VALUE : (2L << i) - 1, this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < Long.SIZE; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.count.reset();
+        this.total.reset();
+        this.max.set(0);
+    }
+}
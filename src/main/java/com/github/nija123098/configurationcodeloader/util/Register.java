@@ -1,26 +1,33 @@
 package com.github.nija123098.configurationcodeloader.util;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
  * A utility class for handling listener registration.
+ * <p>
+ * Listeners are held in an immutable array which is replaced as a whole on registration changes,
+ * so submission iterates a snapshot without taking any lock.
  *
  * @param <T> the type to listen to.
  */
 public class Register<T> {
+    /**
+     * The empty listener array shared by all instances without listeners.
+     */
+    private static final Consumer<?>[] NO_LISTENERS = new Consumer<?>[0];
+
     /**
      * The registered listeners for the value T.
+     * <p>
+     * The referenced array is never modified once published.
      */
-    private final List<Consumer<T>> values = new LinkedList<>();
+    private final AtomicReference<Consumer<?>[]> values = new AtomicReference<>(NO_LISTENERS);
 
     /**
-     * The {@link ReadWriteLock} for locking access to the listener list.
+     * The metrics to record dispatch timings to, {@link ConfigurationMetrics#NONE} if not recording.
      */
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile ConfigurationMetrics metrics = ConfigurationMetrics.NONE;
 
     /**
      * Submit a object to be listened to by the listeners.
@@ -37,9 +44,13 @@ public class Register<T> {
      * @param value the listener to add.
      */
     public void registerListener(Consumer<T> value) {
-        this.lock.writeLock().lock();
-        this.values.add(value);
-        this.lock.writeLock().unlock();
+        Consumer<?>[] current, updated;
+        do {
+            current = this.values.get();
+            updated = new Consumer<?>[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = value;
+        } while (!this.values.compareAndSet(current, updated));
     }
 
     /**
@@ -48,28 +59,110 @@ public class Register<T> {
      * @param value the listener to remove.
      */
     public void deregisterListener(Consumer<T> value) {
-        this.lock.writeLock().lock();
-        this.values.remove(value);
-        this.lock.writeLock().unlock();
+        Consumer<?>[] current, updated;
+        do {
+            current = this.values.get();
+            int index = indexOf(current, value);
+            if (index == -1) {
+                return;
+            }
+            updated = current.length == 1 ? NO_LISTENERS : new Consumer<?>[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!this.values.compareAndSet(current, updated));
     }
 
     /**
      * Iterate over the consumers doing the action.
+     * <p>
+     * Iteration occurs over a snapshot of the listeners at the time of the call.
+     * An exception thrown for one listener does not prevent the action from running on the rest,
+     * the first exception is thrown after all listeners have been visited
+     * with any further exceptions added as suppressed.
      *
      * @param forEach the consumer to run on each listener.
      */
+    @SuppressWarnings("unchecked")// Only Consumer<T> instances are ever registered
     protected void forEachListener(Consumer<Consumer<T>> forEach) {
-        this.lock.readLock().lock();
-        this.values.forEach(forEach);
-        this.lock.readLock().unlock();
+        ConfigurationMetrics metrics = this.metrics;
+        boolean timed = metrics != ConfigurationMetrics.NONE;
+        RuntimeException exception = null;
+        for (Consumer<?> value : this.values.get()) {
+            long start = timed ? System.nanoTime() : 0;
+            try {
+                forEach.accept((Consumer<T>) value);
+            } catch (RuntimeException e) {
+                exception = combine(exception, e);
+            }
+            if (timed) {
+                metrics.recordDispatch(this, value, System.nanoTime() - start);
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Combine an exception with those thrown earlier while visiting several listeners or readers,
+     * keeping the first exception with later ones added as suppressed.
+     *
+     * @param first the first exception, null if none occurred.
+     * @param later the later exception.
+     * @return the exception to throw.
+     */
+    private static RuntimeException combine(RuntimeException first, RuntimeException later) {
+        if (first == null) {
+            return later;
+        }
+        if (first != later) {// an exception can not suppress itself
+            first.addSuppressed(later);
+        }
+        return first;
+    }
+
+    /**
+     * Set the metrics to record timings to.
+     * <p>
+     * With {@link ConfigurationMetrics#NONE}, the default, no timings are taken.
+     *
+     * @param metrics the metrics to record to, null to stop recording.
+     */
+    public void setMetrics(ConfigurationMetrics metrics) {
+        this.metrics = metrics == null ? ConfigurationMetrics.NONE : metrics;
+    }
+
+    /**
+     * Get the metrics timings are recorded to.
+     *
+     * @return the metrics, {@link ConfigurationMetrics#NONE} if not recording.
+     */
+    public ConfigurationMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Get the number of currently registered listeners.
+     *
+     * @return the number of listeners.
+     */
+    public int getListenerCount() {
+        return this.values.get().length;
     }
 
     /**
-     * Get the {@link ReadWriteLock} used for this instance to ensure concurrency.
+     * Find the first index of the listener in the array by identity or equality.
      *
-     * @return the lock.
+     * @param listeners the array to search.
+     * @param value     the listener to look for.
+     * @return the index of the listener, or -1 if not present.
      */
-    protected ReadWriteLock getLock() {
-        return this.lock;
+    private static int indexOf(Consumer<?>[] listeners, Object value) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == value || listeners[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
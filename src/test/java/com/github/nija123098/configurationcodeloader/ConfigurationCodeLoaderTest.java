@@ -2,14 +2,36 @@ package com.github.nija123098.configurationcodeloader;
 
 import com.github.nija123098.configurationcodeloader.reader.ConfigurationReader;
 import com.github.nija123098.configurationcodeloader.reader.VariableConfigurationReader;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationMetrics;
 import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ConfigurationCodeLoaderTest {
     private static final Object OBJECT_A = new Object(), OBJECT_B = new Object();
@@ -33,4 +55,424 @@ public class ConfigurationCodeLoaderTest {
         reader.reload();
         assertEquals(OBJECT_A, result.get().get());
     }
+
+    @Test
+    public <C> void snapshotTest() {
+        ConfigurationCodeLoader<C> loader = new ConfigurationCodeLoader<>();
+        ConfigurationReader<C> reader = new VariableConfigurationReader<>(SnapshotSource.class);
+        loader.addConfigurationReader(reader);
+        assertFalse(loader.getConfig("SNAPSHOT_VALUE").isPresent());
+        assertEquals(0, loader.getVersion());
+
+        reader.startProviding();
+        assertEquals(OBJECT_A, loader.getConfig("SNAPSHOT_VALUE").get());
+        assertEquals(OBJECT_A, loader.snapshot().get("SNAPSHOT_VALUE"));
+        assertEquals(1, loader.getVersion());
+
+        SnapshotSource.SNAPSHOT_VALUE = OBJECT_B;
+        reader.reload();
+        assertEquals(OBJECT_B, loader.getConfig("SNAPSHOT_VALUE").get());
+        assertEquals(2, loader.getVersion());
+    }
+
+    public static class SnapshotSource {
+        @VariableConfigurationReader.Configuration
+        public static Object SNAPSHOT_VALUE = OBJECT_A;
+    }
+
+    @Test
+    public void generationTest() {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        ConfigurationReader<Object> reader = new VariableConfigurationReader<>(GenerationSource.class);
+        loader.addConfigurationReader(reader);
+        List<Generation<Object>> generations = new ArrayList<>();
+        loader.registerGenerationListener(generations::add);
+        Generation<Object> initial = loader.getGeneration();
+        assertEquals(0, initial.getNumber());
+
+        reader.startProviding();
+        Generation<Object> first = loader.getGeneration();
+        assertEquals(1, first.getNumber());
+        assertEquals(Collections.singletonList(first), generations);
+        assertEquals(2, first.getChanges().size());
+
+        GenerationSource.FIRST = OBJECT_B;
+        GenerationSource.SECOND = OBJECT_B;
+        reader.reload();
+        assertEquals(OBJECT_A, first.getValue("FIRST"));// a held generation does not change
+        assertEquals(OBJECT_A, first.getValue("SECOND"));
+        Generation<Object> second = loader.getGeneration();
+        assertEquals(2, second.getNumber());
+        assertEquals(OBJECT_B, second.getValue("FIRST"));
+        assertEquals(OBJECT_B, second.getValue("SECOND"));
+        assertFalse(initial.getConfig("FIRST").isPresent());
+
+        reader.reload();
+        assertEquals(2, generations.size());// nothing changed so no generation is made
+    }
+
+    @Test
+    public void metricsTest() {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        loader.addConfigurationReader(new VariableConfigurationReader<>(SubscriptionSource.class));
+        List<Consumer<?>> timed = new ArrayList<>();
+        loader.setMetrics(new ConfigurationMetrics() {
+            @Override
+            public void recordDispatch(Object source, Consumer<?> listener, long nanos) {
+                assertSame(loader, source);
+                timed.add(listener);
+            }
+        });
+        Consumer<ConfigurationResults<Object>> listener = results -> {
+        }, named = results -> {
+        };
+        Consumer<Generation<Object>> generationListener = generation -> {
+        };
+        loader.registerListener(listener);
+        loader.registerListener(Collections.singleton("FIRST"), named);
+        loader.registerGenerationListener(generationListener);
+        loader.startAll();
+        assertEquals(Arrays.asList(listener, named, generationListener), timed);
+    }
+
+    @Test
+    public void generationOrderTest() throws InterruptedException {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        List<Long> numbers = Collections.synchronizedList(new ArrayList<>());
+        loader.registerGenerationListener(generation -> numbers.add(generation.getNumber()));
+        int threads = 4, changes = 500;
+        List<Thread> pushers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            PushReader reader = new PushReader();
+            loader.addConfigurationReader(reader);
+            String name = "KEY_" + t;
+            pushers.add(new Thread(() -> {
+                for (int i = 1; i <= changes; i++) {
+                    reader.push(name, i);
+                }
+            }));
+        }
+        pushers.forEach(Thread::start);
+        for (Thread pusher : pushers) {
+            pusher.join();
+        }
+        assertEquals(threads * changes, numbers.size());
+        for (int i = 0; i < numbers.size(); i++) {
+            assertEquals(i + 1, (long) numbers.get(i));// delivered in generation order
+        }
+    }
+
+    private static class PushReader extends ConfigurationReader<Object> {
+        private void push(String name, Object value) {
+            this.submit(new ConfigurationResults.Builder<>(1).set(name, value).build());
+        }
+
+        @Override
+        public void startProviding() {
+        }
+
+        @Override
+        public void stopProviding() {
+        }
+    }
+
+    public static class GenerationSource {
+        @VariableConfigurationReader.Configuration
+        public static Object FIRST = OBJECT_A;
+        @VariableConfigurationReader.Configuration
+        public static Object SECOND = OBJECT_A;
+    }
+
+    @Test
+    public void subscriptionTest() {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        VariableConfigurationReader<Object> reader = new VariableConfigurationReader<>(SubscriptionSource.class);
+        loader.addConfigurationReader(reader);
+        List<ConfigurationResults<Object>> named = new ArrayList<>(), patterned = new ArrayList<>(), overlapping = new ArrayList<>();
+        Consumer<ConfigurationResults<Object>> namedListener = named::add, overlappingListener = overlapping::add;
+        loader.registerListener(Collections.singleton("FIRST"), namedListener);
+        loader.registerPatternListener("SECOND_*", patterned::add);
+        loader.registerListener(Collections.singleton("SECOND_A"), overlappingListener);
+        loader.registerPatternListener("SECOND_*", overlappingListener);
+        reader.startProviding();
+        assertEquals(1, overlapping.size());// notified once for all of its subscriptions
+        assertEquals(new HashSet<>(Arrays.asList("SECOND_A", "SECOND_B")), overlapping.get(0).keySet());
+        assertEquals(1, named.size());
+        assertEquals(Collections.singleton("FIRST"), named.get(0).keySet());
+        assertEquals(1, patterned.size());
+        assertEquals(new HashSet<>(Arrays.asList("SECOND_A", "SECOND_B")), patterned.get(0).keySet());
+
+        SubscriptionSource.SECOND_A = OBJECT_B;
+        reader.reload();
+        assertEquals(1, named.size());
+        assertEquals(2, patterned.size());
+        assertEquals(Collections.singleton("SECOND_A"), patterned.get(1).keySet());
+        assertEquals(2, overlapping.size());
+
+        loader.deregisterListener(namedListener);
+        SubscriptionSource.FIRST = OBJECT_B;
+        reader.reload();
+        assertEquals(1, named.size());
+    }
+
+    @Test
+    public void globSubscriptionTest() {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        VariableConfigurationReader<Object> reader = new VariableConfigurationReader<>(SubscriptionSource.class);
+        loader.addConfigurationReader(reader);
+        Map<String, List<ConfigurationResults<Object>>> received = new HashMap<>();
+        for (String glob : Arrays.asList("*", "SECOND*", "SECOND_", "SECOND_?", "F*T", "FIRST", "THIRD*")) {
+            received.put(glob, new ArrayList<>());
+            loader.registerPatternListener(glob, received.get(glob)::add);
+        }
+        reader.startProviding();
+        assertEquals(new HashSet<>(Arrays.asList("FIRST", "SECOND_A", "SECOND_B")), received.get("*").get(0).keySet());
+        assertEquals(new HashSet<>(Arrays.asList("SECOND_A", "SECOND_B")), received.get("SECOND*").get(0).keySet());
+        assertTrue(received.get("SECOND_").isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("SECOND_A", "SECOND_B")), received.get("SECOND_?").get(0).keySet());
+        assertEquals(Collections.singleton("FIRST"), received.get("F*T").get(0).keySet());
+        assertEquals(Collections.singleton("FIRST"), received.get("FIRST").get(0).keySet());
+        assertTrue(received.get("THIRD*").isEmpty());
+    }
+
+    public static class SubscriptionSource {
+        @VariableConfigurationReader.Configuration
+        public static Object FIRST = OBJECT_A;
+        @VariableConfigurationReader.Configuration
+        public static Object SECOND_A = OBJECT_A;
+        @VariableConfigurationReader.Configuration
+        public static Object SECOND_B = OBJECT_A;
+    }
+
+    @Test
+    public void handleTest() {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        VariableConfigurationReader<Object> reader = new VariableConfigurationReader<>(HandleSource.class);
+        loader.addConfigurationReader(reader);
+        IntConfig count = loader.intConfig("COUNT", -1);
+        ConfigKey<String> name = loader.configKey("NAME", String.class);
+        assertEquals(-1, count.getAsInt());
+        assertNull(name.get());
+
+        reader.startProviding();
+        assertEquals(1, count.getAsInt());
+        assertEquals("first", name.get());
+
+        HandleSource.COUNT = 2;
+        HandleSource.NAME = null;
+        reader.reload();
+        assertEquals(2, count.getAsInt());
+        assertNull(name.get());
+        assertEquals(2, loader.intConfig("COUNT", -1).getAsInt());
+    }
+
+    @Test
+    public void repeatedHandleTest() {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        loader.addConfigurationReader(new VariableConfigurationReader<>(HandleSource.class));
+        assertSame(loader.intConfig("COUNT", -1), loader.intConfig("COUNT", -1));
+        assertSame(loader.configKey("NAME", String.class), loader.configKey("NAME", String.class));
+        assertTrue(loader.intConfig("COUNT", 0) != loader.intConfig("COUNT", -1));
+        assertTrue(loader.configKey("NAME", Object.class) != (Object) loader.configKey("NAME", String.class));
+        try {
+            loader.configKey("COUNT", int.class);
+            fail("A primitive type was accepted");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    public static class HandleSource {
+        @VariableConfigurationReader.Configuration
+        public static Integer COUNT = 1;
+        @VariableConfigurationReader.Configuration
+        public static String NAME = "first";
+    }
+
+    @Test
+    public void lifecycleTest() {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        VariableConfigurationReader<Object> lower = new VariableConfigurationReader<>(LowerSource.class);
+        VariableConfigurationReader<Object> higher = new VariableConfigurationReader<>(HigherSource.class);
+        loader.addConfigurationReader(lower);
+        loader.addConfigurationReader(higher);
+        List<ConfigurationResults<Object>> results = new ArrayList<>();
+        loader.registerListener(results::add);
+
+        loader.startAll();
+        assertEquals(1, results.size());
+        assertEquals(OBJECT_B, results.get(0).getValue("SHARED"));
+        assertEquals(OBJECT_A, results.get(0).getValue("LOWER_ONLY"));
+        assertEquals(OBJECT_B, loader.getConfig("SHARED").get());
+
+        LowerSource.SHARED = new Object();// hidden by the higher precedence reader
+        loader.reloadAll();
+        assertEquals(1, results.size());
+        assertEquals(OBJECT_B, loader.getConfig("SHARED").get());
+
+        HigherSource.SHARED = null;
+        loader.reloadAll();
+        assertEquals(2, results.size());
+        assertEquals(LowerSource.SHARED, results.get(1).getValue("SHARED"));
+        loader.stopAll();
+    }
+
+    public static class LowerSource {
+        @VariableConfigurationReader.Configuration
+        public static Object SHARED = OBJECT_A;
+        @VariableConfigurationReader.Configuration
+        public static Object LOWER_ONLY = OBJECT_A;
+    }
+
+    public static class HigherSource {
+        @VariableConfigurationReader.Configuration
+        public static Object SHARED = OBJECT_B;
+    }
+
+    @Test
+    public void cacheTest() throws IOException {
+        File file = File.createTempFile("configuration-code-loader-test", ".cache");
+        try {
+            SnapshotCache cache = new SnapshotCache(file.toPath());
+            Map<String, Object> cached = new HashMap<>();
+            cached.put("KEPT", "kept");
+            cached.put("CHANGED", "old");
+            cached.put("GONE", "gone");
+            cache.write(cached);
+
+            ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>(Runnable::run);
+            loader.addConfigurationReader(new VariableConfigurationReader<>(CachedSource.class));
+            List<ConfigurationResults<Object>> results = new ArrayList<>();
+            loader.registerListener(results::add);
+
+            loader.startAll(cache).join();
+            assertEquals(3, results.size());
+            assertEquals(3, results.get(0).size());// the cached values are published first
+            assertEquals("old", results.get(0).getValue("CHANGED"));
+            assertEquals(Collections.singleton("CHANGED"), results.get(1).keySet());
+            assertEquals("new", results.get(1).getValue("CHANGED"));
+            assertEquals(Collections.singleton("GONE"), results.get(2).keySet());
+            assertFalse(loader.getConfig("GONE").isPresent());
+
+            Map<String, Object> written = cache.read();
+            assertEquals(2, written.size());
+            assertEquals("kept", written.get("KEPT"));
+            assertEquals("new", written.get("CHANGED"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void singleThreadCacheTest() throws Exception {
+        File file = File.createTempFile("configuration-code-loader-test", ".cache");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SnapshotCache cache = new SnapshotCache(file.toPath());
+            cache.write(Collections.singletonMap("CHANGED", "old"));
+
+            ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>(executor);
+            loader.addConfigurationReader(new VariableConfigurationReader<>(CachedSource.class));
+            CompletableFuture<Void> started = loader.startAll(cache);
+            assertSame(started, loader.startAll(cache));// repeated starts are the same start
+            started.get(10, TimeUnit.SECONDS);// the start must not wait on the executor's only thread
+            assertEquals("new", loader.getConfig("CHANGED").orElse(null));
+            assertEquals("new", cache.read().get("CHANGED"));
+            assertSame(started, loader.startAll(cache));
+        } finally {
+            executor.shutdownNow();
+            file.delete();
+        }
+    }
+
+    public static class CachedSource {
+        @VariableConfigurationReader.Configuration
+        public static String KEPT = "kept";
+        @VariableConfigurationReader.Configuration
+        public static String CHANGED = "new";
+    }
+
+    @Test
+    public void pipelineTest() {
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        ConfigurationReader<Object> reader = new VariableConfigurationReader<>(PipelineSource.class);
+        loader.addConfigurationReader(reader);
+        AtomicInteger transforms = new AtomicInteger();
+        loader.registerTransformer("PATTERN", value -> {
+            transforms.incrementAndGet();
+            return Pattern.compile((String) value);
+        });
+        loader.registerValidator("SIZE", value -> (Integer) value > 0);
+        List<ConfigurationResults<Object>> first = new ArrayList<>(), second = new ArrayList<>();
+        loader.registerListener(first::add);
+        loader.registerListener(second::add);
+        reader.startProviding();
+        assertEquals(1, transforms.get());
+        assertTrue(first.get(0).getValue("PATTERN") instanceof Pattern);
+        assertSame(first.get(0).getValue("PATTERN"), second.get(0).getValue("PATTERN"));
+        assertSame(first.get(0).getValue("PATTERN"), loader.getConfig("PATTERN").get());
+
+        reader.reload();
+        assertEquals(1, transforms.get());// unchanged values are not transformed again
+
+        PipelineSource.PATTERN = "b+";
+        PipelineSource.SIZE = -1;
+        int notified = first.size();
+        try {
+            reader.reload();
+            fail();
+        } catch (ConfigurationCodeLoaderException e) {
+            assertTrue(e.getMessage().contains("SIZE"));
+        }
+        assertEquals(notified, first.size());// the whole change was rejected
+        assertEquals("a+", ((Pattern) loader.getConfig("PATTERN").get()).pattern());
+        assertEquals(1, loader.getConfig("SIZE").get());
+
+        PipelineSource.SIZE = 2;
+        reader.reload();
+        assertEquals(2, loader.getConfig("SIZE").get());
+
+        PipelineSource.PATTERN = "c+";
+        reader.reload();
+        assertEquals("c+", ((Pattern) loader.getConfig("PATTERN").get()).pattern());
+
+        try {
+            loader.registerValidator("SIZE", value -> (Integer) value > 5);
+            fail();
+        } catch (ConfigurationCodeLoaderException e) {
+            assertEquals(2, loader.getConfig("SIZE").get());
+        }
+    }
+
+    @Test
+    public void parallelPipelineTest() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+            loader.setPipelineExecutor(executor);
+            loader.registerTransformer("FIRST", value -> "first " + value);
+            loader.registerTransformer("SECOND", value -> "second " + value);
+            ConfigurationReader<Object> reader = new VariableConfigurationReader<>(ParallelPipelineSource.class);
+            loader.addConfigurationReader(reader);
+            loader.startAll();
+            assertEquals("first a", loader.getConfig("FIRST").get());
+            assertEquals("second b", loader.getConfig("SECOND").get());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class PipelineSource {
+        @VariableConfigurationReader.Configuration
+        public static String PATTERN = "a+";
+        @VariableConfigurationReader.Configuration
+        public static Integer SIZE = 1;
+    }
+
+    public static class ParallelPipelineSource {
+        @VariableConfigurationReader.Configuration
+        public static String FIRST = "a";
+        @VariableConfigurationReader.Configuration
+        public static String SECOND = "b";
+    }
 }
@@ -0,0 +1,60 @@
+package com.github.nija123098.configurationcodeloader;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotCacheTest {
+
+    @Test
+    public void test() throws IOException {
+        File file = File.createTempFile("configuration-code-loader-test", ".cache");
+        try {
+            SnapshotCache cache = new SnapshotCache(file.toPath());
+            Map<String, Object> values = new HashMap<>();
+            values.put("STRING", "value");
+            values.put("INTEGER", 5);
+            values.put("UNSERIALIZABLE", new Object());
+            cache.write(values);
+
+            Map<String, Object> read = cache.read();
+            assertEquals(2, read.size());
+            assertEquals("value", read.get("STRING"));
+            assertEquals(5, read.get("INTEGER"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void corruptTest() throws IOException {
+        File file = File.createTempFile("configuration-code-loader-test", ".cache");
+        try {
+            SnapshotCache cache = new SnapshotCache(file.toPath());
+            assertTrue(cache.read().isEmpty());// empty file
+
+            Map<String, Object> values = new HashMap<>();
+            values.put("STRING", "value");
+            cache.write(values);
+            try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+                access.seek(access.length() - 1);
+                int last = access.read();
+                access.seek(access.length() - 1);
+                access.write(last ^ 1);
+            }
+            assertTrue(cache.read().isEmpty());
+
+            file.delete();
+            assertTrue(cache.read().isEmpty());
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ClassFileConstantsTest {
+    private static final String DESCRIPTOR = "L" + VariableConfigurationReader.Configuration.class.getName().replace('.', '/') + ";";
+
+    @Test
+    public void constantsTest() throws IOException {
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("BOOLEAN", true);
+        expected.put("BYTE", (byte) -3);
+        expected.put("CHAR", '\u00e9');
+        expected.put("SHORT", (short) 300);
+        expected.put("INT", 70000);
+        expected.put("LONG", 1L << 40);
+        expected.put("FLOAT", 1.5F);
+        expected.put("DOUBLE", -2.25);
+        expected.put("STRING", "caf\u00e9 \u0000 \u20ac");
+        assertEquals(expected, ClassFileConstants.readConstants(read(Constants.class), DESCRIPTOR));
+    }
+
+    @Test
+    public void initializedTest() throws IOException {
+        assertNull(ClassFileConstants.readConstants(read(Initialized.class), DESCRIPTOR));
+        assertNull(ClassFileConstants.readConstants(read(Instance.class), DESCRIPTOR));
+    }
+
+    @Test
+    public void inaccessibleTest() throws IOException {
+        assertNull(ClassFileConstants.readConstants(read(PrivateConstant.class), DESCRIPTOR));
+        assertNull(ClassFileConstants.readConstants(read(PackageConstant.class), DESCRIPTOR));
+        assertNull(ClassFileConstants.readConstants(read(HiddenClass.class), DESCRIPTOR));
+    }
+
+    @Test
+    public void malformedTest() {
+        try {
+            ClassFileConstants.readConstants(ByteBuffer.wrap(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0}), DESCRIPTOR);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    private static ByteBuffer read(Class<?> clazz) throws IOException {
+        try (InputStream in = clazz.getResourceAsStream(clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class")) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return ByteBuffer.wrap(bytes.toByteArray());
+        }
+    }
+
+    public static class Constants {
+        @VariableConfigurationReader.Configuration
+        public static final boolean BOOLEAN = true;
+        @VariableConfigurationReader.Configuration
+        public static final byte BYTE = -3;
+        @VariableConfigurationReader.Configuration
+        public static final char CHAR = '\u00e9';
+        @VariableConfigurationReader.Configuration
+        public static final short SHORT = 300;
+        @VariableConfigurationReader.Configuration
+        public static final int INT = 70000;
+        @VariableConfigurationReader.Configuration
+        public static final long LONG = 1L << 40;
+        @VariableConfigurationReader.Configuration
+        public static final float FLOAT = 1.5F;
+        @VariableConfigurationReader.Configuration
+        public static final double DOUBLE = -2.25;
+        @Deprecated
+        @VariableConfigurationReader.Configuration
+        public static final String STRING = "caf\u00e9 \u0000 \u20ac";
+        public static final int IGNORED = 1;
+    }
+
+    public static class Initialized {
+        @VariableConfigurationReader.Configuration
+        public static final int CONSTANT = 1;
+        @VariableConfigurationReader.Configuration
+        public static final Integer BOXED = 2;
+    }
+
+    public static class Instance {
+        @VariableConfigurationReader.Configuration
+        public final int value = 1;
+    }
+
+    public static class PrivateConstant {
+        @VariableConfigurationReader.Configuration
+        private static final int CONSTANT = 1;
+    }
+
+    public static class PackageConstant {
+        @VariableConfigurationReader.Configuration
+        static final int CONSTANT = 1;
+    }
+
+    private static class HiddenClass {
+        @VariableConfigurationReader.Configuration
+        public static final int CONSTANT = 1;
+    }
+}
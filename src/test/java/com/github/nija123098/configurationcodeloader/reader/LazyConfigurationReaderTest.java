@@ -0,0 +1,57 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LazyConfigurationReaderTest {
+    private static final AtomicBoolean INITIALIZED = new AtomicBoolean();
+
+    @Test
+    public void test() {
+        final AtomicReference<Class<?>> clazz = new AtomicReference<>(Expensive.class);
+        final LazyConfigurationReader<Object> reader = new LazyConfigurationReader<>(clazz::get, null);
+        final AtomicReference<ConfigurationResults<LazyValue<Object>>> reference = new AtomicReference<>();
+        reader.registerListener(reference::set);
+        reader.startProviding();
+        assertEquals(2, reference.get().size());
+        assertFalse(INITIALIZED.get());
+
+        LazyValue<Object> value = reference.get().getValue("VALUE");
+        assertFalse(value.isRead());
+        assertEquals("expensive", value.get());
+        assertTrue(value.isRead());
+        assertTrue(INITIALIZED.get());
+
+        reader.reload();
+        assertTrue(reference.get().isEmpty());
+
+        clazz.set(Replacement.class);
+        reader.reload();
+        assertEquals(2, reference.get().size());
+        assertEquals("replacement", reference.get().getValue("VALUE").get());
+        assertTrue(reference.get().isUnset("OTHER"));
+    }
+
+    public static class Expensive {
+        static {
+            INITIALIZED.set(true);
+        }
+
+        @VariableConfigurationReader.Configuration
+        public static Object VALUE = "expensive";
+        @VariableConfigurationReader.Configuration
+        public static Object OTHER = "other";
+    }
+
+    public static class Replacement {
+        @VariableConfigurationReader.Configuration
+        public static Object VALUE = "replacement";
+    }
+}
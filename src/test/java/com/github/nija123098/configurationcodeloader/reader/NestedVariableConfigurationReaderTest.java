@@ -0,0 +1,108 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.ConfigurationCodeLoader;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NestedVariableConfigurationReaderTest {
+
+    @Test
+    public void objectTest() {
+        Settings settings = new Settings();
+        NestedVariableConfigurationReader<Object> reader = new NestedVariableConfigurationReader<>(Settings.class, settings);
+        AtomicReference<ConfigurationResults<Object>> reference = new AtomicReference<>();
+        reader.registerListener(reference::set);
+        reader.startProviding();
+        assertEquals(new HashSet<>(Arrays.asList("name", "db.url", "db.pool.maxSize", "db.pool.minSize")), reference.get().keySet());
+        assertEquals(10, reference.get().getValue("db.pool.maxSize"));
+
+        settings.db.pool.maxSize = 20;
+        reader.reload();
+        assertEquals(Collections.singleton("db.pool.maxSize"), reference.get().keySet());
+        assertEquals(20, reference.get().getValue("db.pool.maxSize"));
+
+        reader.reload();
+        assertTrue(reference.get().isEmpty());
+
+        settings.db.pool = null;
+        reader.reload();
+        assertEquals(new HashSet<>(Arrays.asList("db.pool", "db.pool.maxSize", "db.pool.minSize")), reference.get().keySet());
+        assertTrue(reference.get().isUnset("db.pool.maxSize"));
+    }
+
+    @Test
+    public void staticTest() {
+        NestedVariableConfigurationReader<Object> reader = new NestedVariableConfigurationReader<>(StaticSettings.class);
+        AtomicReference<ConfigurationResults<Object>> reference = new AtomicReference<>();
+        reader.registerListener(reference::set);
+        reader.startProviding();
+        assertEquals(new HashSet<>(Arrays.asList("TIMEOUT", "db.URL")), reference.get().keySet());
+    }
+
+    @Test
+    public void patternTest() {
+        Settings settings = new Settings();
+        ConfigurationCodeLoader<Object> loader = new ConfigurationCodeLoader<>();
+        NestedVariableConfigurationReader<Object> reader = new NestedVariableConfigurationReader<>(Settings.class, settings);
+        loader.addConfigurationReader(reader);
+        List<ConfigurationResults<Object>> pool = new ArrayList<>();
+        loader.registerPatternListener("db.pool.*", pool::add);
+        reader.startProviding();
+        assertEquals(1, pool.size());
+
+        settings.name = "changed";
+        settings.db.url = "changed";
+        reader.reload();
+        assertEquals(1, pool.size());
+
+        settings.db.pool.minSize = 2;
+        reader.reload();
+        assertEquals(2, pool.size());
+        assertEquals(Collections.singleton("db.pool.minSize"), pool.get(1).keySet());
+    }
+
+    public static class Settings {
+        @VariableConfigurationReader.Configuration
+        public String name = "name";
+        @VariableConfigurationReader.Configuration
+        public Database db = new Database();
+    }
+
+    public static class Database {
+        @VariableConfigurationReader.Configuration
+        public String url = "jdbc:test";
+        @VariableConfigurationReader.Configuration
+        public Pool pool = new Pool();
+    }
+
+    public static class Pool {
+        @VariableConfigurationReader.Configuration
+        public int maxSize = 10;
+        @VariableConfigurationReader.Configuration
+        public int minSize = 1;
+    }
+
+    public static class StaticSettings {
+        @VariableConfigurationReader.Configuration
+        public static int TIMEOUT = 5;
+
+        public static class Db {
+            @VariableConfigurationReader.Configuration
+            public static String URL = "jdbc:test";
+        }
+
+        public static class Unrelated {
+            public static String IGNORED = "ignored";
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ReloadRequiredConfigurationReaderTest {
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void setUp() {
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void collapseTest() {
+        CountingReader reader = new CountingReader();
+        reader.scheduleReloads(this.executor, 50, 0, 0);
+        reader.startProviding();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(reader.requestReload());
+        }
+        futures.forEach(CompletableFuture::join);
+        assertSame(futures.get(0), futures.get(9));
+        assertEquals(2, reader.reads.get());
+
+        reader.requestReload().join();
+        assertEquals(3, reader.reads.get());
+    }
+
+    @Test
+    public void rateTest() {
+        CountingReader reader = new CountingReader();
+        reader.scheduleReloads(this.executor, 0, 200, 0);
+        reader.startProviding();
+        long start = System.nanoTime();
+        reader.requestReload().join();
+        reader.requestReload().join();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(3, reader.reads.get());
+    }
+
+    @Test
+    public void pollTest() throws InterruptedException {
+        CountingReader reader = new CountingReader();
+        reader.scheduleReloads(this.executor, 0, 0, 10);
+        reader.startProviding();
+        Thread.sleep(200);
+        reader.stopProviding();
+        assertTrue(reader.reads.get() > 2);
+        Thread.sleep(50);// let a reload requested before stopping finish
+        int reads = reader.reads.get();
+        Thread.sleep(100);
+        assertEquals(reads, reader.reads.get());
+    }
+
+    @Test
+    public void stopDuringReadTest() throws InterruptedException {
+        CountDownLatch reading = new CountDownLatch(1), release = new CountDownLatch(1);
+        AtomicInteger value = new AtomicInteger(1);
+        ReloadRequiredConfigurationReader<Object> reader = new ReloadRequiredConfigurationReader<Object>() {
+            @Override
+            public ConfigurationResults<Object> readValues() {
+                if (value.get() == 2) {
+                    reading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return new ConfigurationResults.Builder<>().set("KEY", value.get()).build();
+            }
+        };
+        List<ConfigurationResults<Object>> results = new CopyOnWriteArrayList<>();
+        reader.registerListener(results::add);
+        reader.startProviding();
+        assertEquals(1, results.size());
+
+        value.set(2);
+        Thread thread = new Thread(reader::reload);
+        thread.start();
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        reader.stopProviding();// returns without waiting for the read
+        release.countDown();
+        thread.join(5000);
+        assertEquals(1, results.size());// the read was discarded
+
+        value.set(3);
+        reader.startProviding();
+        assertEquals(2, results.size());
+        assertEquals(3, results.get(1).getValue("KEY"));
+    }
+
+    private static class CountingReader extends ReloadRequiredConfigurationReader<Object> {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public ConfigurationResults<Object> readValues() {
+            this.reads.incrementAndGet();
+            return ConfigurationResults.empty();
+        }
+    }
+}
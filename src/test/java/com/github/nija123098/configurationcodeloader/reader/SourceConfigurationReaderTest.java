@@ -0,0 +1,102 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SourceConfigurationReaderTest {
+
+    @BeforeClass
+    public static void compilerCheck() {
+        Assume.assumeTrue(ToolProvider.getSystemJavaCompiler() != null);
+    }
+
+    @Test
+    public void test() throws IOException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File packageDir = new File(dir, "test");
+        packageDir.mkdir();
+        File src = new File(packageDir, "TestClass.java"), other = new File(packageDir, "Other.java");
+        try {
+            Files.write(other.toPath(), Arrays.asList("package test;",
+                    "public class Other {",
+                    "   public static Integer value() { return 1; }",
+                    "}"));
+            write(src, "Other.value()");
+
+            ConfigurationReader<Integer> reader = new SourceConfigurationReader<>(dir.toPath(), "test.TestClass", field -> field.getName().equals("KEY"));
+            AtomicReference<ConfigurationResults<Integer>> reference = new AtomicReference<>();
+            reader.registerListener(reference::set);
+            reader.startProviding();
+            assertEquals(Optional.of(1), reference.get().get("KEY"));
+
+            reader.reload();
+            assertTrue(reference.get().isEmpty());
+
+            write(src, "Other.value() + 1");// compiled against the class of the unchanged file from memory
+            reader.reload();
+            assertEquals(Optional.of(2), reference.get().get("KEY"));
+
+            write(src, "Missing.value()");
+            try {
+                reader.reload();
+                fail();
+            } catch (ConfigurationCodeLoaderException e) {
+                assertTrue(e.getMessage().contains("Missing"));
+            }
+        } finally {
+            src.delete();
+            other.delete();
+            packageDir.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void restartTest() throws IOException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File packageDir = new File(dir, "test");
+        packageDir.mkdir();
+        File src = new File(packageDir, "TestClass.java");
+        try {
+            write(src, "1");
+            ConfigurationReader<Integer> reader = new SourceConfigurationReader<>(dir.toPath(), "test.TestClass", field -> field.getName().equals("KEY"));
+            AtomicReference<ConfigurationResults<Integer>> reference = new AtomicReference<>();
+            reader.registerListener(reference::set);
+            reader.startProviding();
+            assertEquals(Optional.of(1), reference.get().get("KEY"));
+            reader.stopProviding();
+            reader.stopProviding();// closing again is harmless
+
+            write(src, "2");// compiled with a file manager opened again
+            reader.startProviding();
+            assertEquals(Optional.of(2), reference.get().get("KEY"));
+            reader.stopProviding();
+        } finally {
+            src.delete();
+            packageDir.delete();
+            dir.delete();
+        }
+    }
+
+    private static void write(File src, String expression) throws IOException {
+        Files.write(src.toPath(), Arrays.asList("package test;",
+                "public class TestClass {",
+                "   public static final Integer KEY = " + expression + ";",
+                "}"));
+    }
+}
@@ -0,0 +1,327 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class URLClassLoaderGenerationsTest {
+
+    @BeforeClass
+    public static void javacCheck() {
+        URLClassVariableConfigurationReaderTest.javacCheck();
+    }
+
+    @Test
+    public void sharedGenerationTest() throws IOException, InterruptedException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File first = new File(dir, "First.java"), second = new File(dir, "Second.java");
+        File packageDir = new File(dir, "test");
+        try {
+            write(dir, first, "First", 1);
+            write(dir, second, "Second", 2);
+
+            URLClassLoaderGenerations generations = new URLClassLoaderGenerations(dir.toURI().toURL());
+            ConfigurationReader<Integer> firstReader = generations.newReader("test.First", field -> field.getName().equals("KEY"));
+            ConfigurationReader<Integer> secondReader = generations.newReader("test.Second", field -> field.getName().equals("KEY"));
+            AtomicReference<ConfigurationResults<Integer>> firstResults = new AtomicReference<>();
+            AtomicReference<ConfigurationResults<Integer>> secondResults = new AtomicReference<>();
+            firstReader.registerListener(firstResults::set);
+            secondReader.registerListener(secondResults::set);
+            firstReader.startProviding();
+            secondReader.startProviding();
+            assertEquals(Optional.of(1), firstResults.get().get("KEY"));
+            assertEquals(Optional.of(2), secondResults.get().get("KEY"));
+            assertEquals(1, generations.getLiveGenerationCount());
+
+            firstReader.reload();
+            secondReader.reload();
+            assertEquals(1, generations.getLiveGenerationCount());
+
+            write(dir, second, "Second", 3);
+            firstReader.reload();
+            assertEquals(1, generations.getLiveGenerationCount());
+            secondReader.reload();
+            assertEquals(Optional.of(3), secondResults.get().get("KEY"));
+            assertEquals(2, generations.getLiveGenerationCount());
+
+            firstReader.reload();// keeps the generation it holds as its class is unchanged
+            assertEquals(2, generations.getLiveGenerationCount());
+
+            write(dir, first, "First", 4);
+            firstReader.reload();// moves to a newer generation, so the first one is closed
+            assertEquals(Optional.of(4), firstResults.get().get("KEY"));
+            assertEquals(2, generations.getLiveGenerationCount());// the second is still held by the second reader
+
+            generations.close();
+            assertEquals(0, generations.getLiveGenerationCount());
+        } finally {
+            first.delete();
+            second.delete();
+            new File(packageDir, "First.class").delete();
+            new File(packageDir, "Second.class").delete();
+            packageDir.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void lazySiblingTest() throws IOException, InterruptedException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File first = new File(dir, "First.java"), second = new File(dir, "Second.java");
+        File packageDir = new File(dir, "test");
+        try {
+            write(dir, first, "First", 1);
+            write(dir, second, "Second", 2);
+
+            URLClassLoaderGenerations generations = new URLClassLoaderGenerations(dir.toURI().toURL());
+            ConfigurationReader<LazyValue<Integer>> firstReader = generations.newLazyReader("test.First", field -> field.getName().equals("KEY"));
+            ConfigurationReader<LazyValue<Integer>> secondReader = generations.newLazyReader("test.Second", field -> field.getName().equals("KEY"));
+            AtomicReference<ConfigurationResults<LazyValue<Integer>>> firstResults = new AtomicReference<>();
+            AtomicReference<ConfigurationResults<LazyValue<Integer>>> secondResults = new AtomicReference<>();
+            firstReader.registerListener(firstResults::set);
+            secondReader.registerListener(secondResults::set);
+            firstReader.startProviding();
+            secondReader.startProviding();
+            assertEquals(1, (int) firstResults.get().getValue("KEY").get());
+
+            write(dir, second, "Second", 3);
+            secondReader.reload();
+            firstReader.reload();
+            assertEquals(3, (int) secondResults.get().getValue("KEY").get());
+            assertTrue(firstResults.get().isEmpty());// the class of the first reader did not change
+            generations.close();
+        } finally {
+            first.delete();
+            second.delete();
+            new File(packageDir, "First.class").delete();
+            new File(packageDir, "Second.class").delete();
+            packageDir.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void sameSizeRewriteTest() throws IOException, InterruptedException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File src = new File(dir, "Rewritten.java");
+        File packageDir = new File(dir, "test");
+        File classFile = new File(packageDir, "Rewritten.class");
+        try {
+            write(dir, src, "Rewritten", 1);
+            URLClassLoaderGenerations generations = new URLClassLoaderGenerations(dir.toURI().toURL());
+            ConfigurationReader<Integer> reader = generations.newReader("test.Rewritten", field -> field.getName().equals("KEY"));
+            AtomicReference<ConfigurationResults<Integer>> results = new AtomicReference<>();
+            reader.registerListener(results::set);
+            reader.startProviding();
+            assertEquals(Optional.of(1), results.get().get("KEY"));
+
+            long length = classFile.length(), lastModified = classFile.lastModified();
+            write(dir, src, "Rewritten", 2);
+            assertTrue(classFile.setLastModified(lastModified));
+            assertEquals(length, classFile.length());
+            reader.reload();
+            assertEquals(Optional.of(2), results.get().get("KEY"));
+            generations.close();
+        } finally {
+            src.delete();
+            classFile.delete();
+            packageDir.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void generationLimitTest() throws IOException, InterruptedException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File src = new File(dir, "Limited.java");
+        File packageDir = new File(dir, "test");
+        try {
+            write(dir, src, "Limited", 1);
+            URLClassLoaderGenerations generations = new URLClassLoaderGenerations(dir.toURI().toURL());
+            List<Integer> reached = new ArrayList<>();
+            generations.setGenerationLimit(1, true, reached::add);
+            ConfigurationReader<Integer> reader = generations.newReader("test.Limited", field -> field.getName().equals("KEY"));
+            AtomicReference<ConfigurationResults<Integer>> results = new AtomicReference<>();
+            reader.registerListener(results::set);
+            reader.startProviding();
+            assertEquals(1, generations.getRetainedGenerationCount());
+
+            write(dir, src, "Limited", 2);
+            reader.reload();// the current generation does not count toward the limit
+            assertEquals(Optional.of(2), results.get().get("KEY"));
+            write(dir, src, "Limited", 3);
+            awaitRetained(generations, 1);// the first generation only stops counting once collected
+            reader.reload();
+            assertEquals(Optional.of(3), results.get().get("KEY"));
+            assertTrue(reached.isEmpty());
+
+            URLClassLoaderGenerations.Generation held = generations.acquire("test.Limited", null);// keeps the third generation
+            write(dir, src, "Limited", 4);
+            awaitRetained(generations, 1);
+            reader.reload();
+            assertEquals(Optional.of(4), results.get().get("KEY"));
+            write(dir, src, "Limited", 5);
+            try {
+                reader.reload();
+                fail();
+            } catch (ConfigurationCodeLoaderException e) {
+                assertEquals(Collections.singletonList(1), reached);
+            }
+            assertEquals(Optional.of(4), results.get().get("KEY"));
+
+            generations.release(held);
+            held = null;
+            awaitRetained(generations, 1);// the third generation is collected once no longer held
+            reader.reload();
+            assertEquals(Optional.of(5), results.get().get("KEY"));
+            assertEquals(1, reached.size());
+            assertEquals(1, generations.getLiveGenerationCount());
+            generations.close();
+        } finally {
+            src.delete();
+            new File(packageDir, "Limited.class").delete();
+            packageDir.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void constantTest() throws IOException, InterruptedException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File src = new File(dir, "Constants.java");
+        File packageDir = new File(dir, "test");
+        try {
+            writeAnnotated(dir, src, "5");
+
+            URLClassLoaderGenerations generations = new URLClassLoaderGenerations(dir.toURI().toURL());
+            ConfigurationReader<Object> reader = generations.newReader("test.Constants");
+            AtomicReference<ConfigurationResults<Object>> results = new AtomicReference<>();
+            reader.registerListener(results::set);
+            reader.startProviding();
+            assertEquals(Optional.of(5), results.get().get("KEY"));
+            assertEquals(Optional.of("name"), results.get().get("NAME"));
+            assertEquals(0, generations.getLiveGenerationCount());// read from the class file
+
+            reader.reload();
+            assertTrue(results.get().isEmpty());
+
+            writeAnnotated(dir, src, "6");
+            reader.reload();
+            assertEquals(Optional.of(6), results.get().get("KEY"));
+            assertFalse(results.get().containsKey("NAME"));
+            assertEquals(0, generations.getLiveGenerationCount());
+
+            writeAnnotated(dir, src, "Integer.parseInt(\"7\")");// requires initializing the class
+            reader.reload();
+            assertEquals(Optional.of(7), results.get().get("KEY"));
+            assertEquals(1, generations.getLiveGenerationCount());
+
+            writeAnnotated(dir, src, "8");
+            reader.reload();
+            assertEquals(Optional.of(8), results.get().get("KEY"));
+            generations.close();
+        } finally {
+            src.delete();
+            new File(packageDir, "Constants.class").delete();
+            packageDir.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void jarConstantTest() throws IOException, InterruptedException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File src = new File(dir, "Constants.java");
+        File packageDir = new File(dir, "test");
+        File classFile = new File(packageDir, "Constants.class");
+        File jar = new File(dir, "constants.jar");
+        try {
+            writeAnnotated(dir, src, "5");
+            writeJar(jar, classFile, 0);
+
+            URLClassLoaderGenerations generations = new URLClassLoaderGenerations(jar.toURI().toURL());
+            ConfigurationReader<Object> reader = generations.newReader("test.Constants");
+            AtomicReference<ConfigurationResults<Object>> results = new AtomicReference<>();
+            reader.registerListener(results::set);
+            reader.startProviding();
+            assertEquals(Optional.of(5), results.get().get("KEY"));
+
+            writeAnnotated(dir, src, "6");
+            writeJar(jar, classFile, 2000);
+            reader.reload();
+            assertEquals(Optional.of(6), results.get().get("KEY"));
+            assertEquals(0, generations.getLiveGenerationCount());// read from the jar
+            generations.close();
+        } finally {
+            src.delete();
+            classFile.delete();
+            packageDir.delete();
+            jar.delete();
+            dir.delete();
+        }
+    }
+
+    private static void writeJar(File jar, File classFile, long modifiedOffset) throws IOException {
+        long lastModified = jar.lastModified();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("test/Constants.class"));
+            out.write(Files.readAllBytes(classFile.toPath()));
+            out.closeEntry();
+        }
+        if (modifiedOffset != 0) {
+            assertTrue(jar.setLastModified(lastModified + modifiedOffset));
+        }
+    }
+
+    private static void awaitRetained(URLClassLoaderGenerations generations, int retained) throws InterruptedException {
+        for (int i = 0; i < 50 && generations.getRetainedGenerationCount() > retained; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(retained, generations.getRetainedGenerationCount());
+    }
+
+    private static void writeAnnotated(File dir, File src, String value) throws IOException, InterruptedException {
+        Files.write(src.toPath(),
+                Arrays.asList("package test;",
+                        "import " + VariableConfigurationReader.Configuration.class.getCanonicalName() + ";",
+                        "public class Constants {",
+                        "   @Configuration public static final int KEY = " + value + ";",
+                        "   @Configuration public static final String NAME = \"name\";",
+                        "}"));
+        Process process = new ProcessBuilder("javac", "-cp", System.getProperty("java.class.path"), "-d", dir.toString(), src.toString()).start();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) throw new RuntimeException("javac process not exited");
+        assertEquals(0, process.exitValue());
+    }
+
+    private static void write(File dir, File src, String className, int value) throws IOException, InterruptedException {
+        Files.write(src.toPath(),
+                Arrays.asList("package test;",
+                        "public class " + className + " {",
+                        "   public static final Integer KEY = " + value + ";",
+                        "}"));
+        Process process = new ProcessBuilder("javac", "-d", dir.toString(), src.toString()).start();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) throw new RuntimeException("javac process not exited");
+        assertEquals(0, process.exitValue());
+    }
+}
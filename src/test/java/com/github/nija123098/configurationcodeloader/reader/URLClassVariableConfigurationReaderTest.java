@@ -1,6 +1,7 @@
 package com.github.nija123098.configurationcodeloader.reader;
 
 import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
 import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -14,6 +15,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class URLClassVariableConfigurationReaderTest {
@@ -87,6 +90,41 @@ public class URLClassVariableConfigurationReaderTest {
         }
     }
 
+    @Test
+    public void unchangedTest() throws IOException, InterruptedException {
+        File dir = makeTemporaryDirectory("configuration-code-loader-test");
+        File src = new File(dir, "TestClass.java");
+        File out = new File(new File(dir, "test"), "TestClass.class");
+        try {
+            Files.write(src.toPath(),
+                    Arrays.asList("package test;",
+                            "public class TestClass {",
+                            "   public static final Object KEY = new Object();",
+                            "}"));
+            Process process = new ProcessBuilder("javac", "-d", dir.toString(), src.toString()).start();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) throw new RuntimeException("javac process not exited");
+            assertEquals(0, process.exitValue());
+
+            ConfigurationReader<?> reader = new URLClassVariableConfigurationReader<>(dir.toURI().toURL(), "test.TestClass", field -> field.getName().equals("KEY"));
+            AtomicReference<ConfigurationResults<?>> reference = new AtomicReference<>();
+            reader.registerListener(reference::set);
+            reader.startProviding();
+            assertTrue(reference.get().containsKey("KEY"));
+
+            reader.reload();// a new load of the class would produce a new value
+            assertFalse(reference.get().containsKey("KEY"));
+
+            out.setLastModified(out.lastModified() + 1000);
+            reader.reload();
+            assertFalse(reference.get().containsKey("KEY"));
+        } finally {
+            src.delete();
+            out.delete();
+            out.getParentFile().delete();
+            dir.delete();
+        }
+    }
+
     @Test
     public void noClassTest() throws IOException {
         File file = File.createTempFile("test", ".txt");
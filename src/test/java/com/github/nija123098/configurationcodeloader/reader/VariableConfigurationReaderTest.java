@@ -2,6 +2,7 @@ package com.github.nija123098.configurationcodeloader.reader;
 
 import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
 import com.github.nija123098.configurationcodeloader.util.ConfigurationResults;
+import com.github.nija123098.configurationcodeloader.util.JmxConfigurationMetrics;
 import org.junit.Test;
 
 import java.util.concurrent.atomic.AtomicReference;
@@ -27,6 +28,30 @@ public class VariableConfigurationReaderTest {
         assertEquals(OBJECT, reference.get().get("OBJECT").get());
     }
 
+    @Test
+    public void unchangedTest() {
+        final VariableConfigurationReader<?> reader = new VariableConfigurationReader<>(VariableConfigurationReaderTest.class);
+        final AtomicReference<ConfigurationResults<?>> reference = new AtomicReference<>();
+        reader.registerListener(reference::set);
+        reader.startProviding();
+        reader.reload();
+        assertTrue(reference.get().isEmpty());
+    }
+
+    @Test
+    public void metricsTest() {
+        final VariableConfigurationReader<?> reader = new VariableConfigurationReader<>(VariableConfigurationReaderTest.class);
+        final JmxConfigurationMetrics metrics = new JmxConfigurationMetrics();
+        reader.setMetrics(metrics);
+        reader.startProviding();
+        assertEquals(1, metrics.getReadCount());
+        assertEquals(1, metrics.getLastChangedKeyCount());
+        reader.reload();
+        assertEquals(2, metrics.getReadCount());
+        assertEquals(0, metrics.getLastChangedKeyCount());
+        assertEquals(1, metrics.getChangedKeyCount());
+    }
+
     @Test
     public void failTest() {
         final VariableConfigurationReader<?> reader = new VariableConfigurationReader<>(InvalidLoad.class);
@@ -38,6 +63,53 @@ public class VariableConfigurationReaderTest {
         }
     }
 
+    @Test
+    public void accessorCacheTest() {
+        final VariableConfigurationReader<?> first = new VariableConfigurationReader<>(VariableConfigurationReaderTest.class);
+        final VariableConfigurationReader<?> second = new VariableConfigurationReader<>(VariableConfigurationReaderTest.class);
+        assertSame(first.getAccessors(), second.getAccessors());
+        assertEquals(1, first.getAccessors().size());
+        assertEquals("OBJECT", first.getAccessors().getField(0).getName());
+    }
+
+    @Test
+    public void trackedTest() {
+        final Tracked tracked = new Tracked();
+        final VariableConfigurationReader<Object> reader = new VariableConfigurationReader<>(Tracked.class, tracked, null, tracked.tracker);
+        final AtomicReference<ConfigurationResults<Object>> reference = new AtomicReference<>();
+        reader.registerListener(reference::set);
+        reader.startProviding();
+        assertEquals(2, reference.get().size());
+
+        tracked.setTimeout(20);
+        tracked.name = "unmarked";// not marked so not read
+        reader.reload();
+        assertEquals(1, reference.get().size());
+        assertEquals(20, reference.get().getValue("timeout"));
+        assertFalse(tracked.tracker.isDirty());
+
+        tracked.setTimeout(20);// marked without changing
+        reader.reload();
+        assertTrue(reference.get().isEmpty());
+
+        reader.stopProviding();
+        reader.startProviding();
+        assertEquals("unmarked", reference.get().getValue("name"));
+    }
+
+    public static class Tracked {
+        private final DirtyFieldTracker tracker = new DirtyFieldTracker();
+        @VariableConfigurationReader.Configuration
+        public int timeout = 10;
+        @VariableConfigurationReader.Configuration
+        public String name = "name";
+
+        private void setTimeout(int timeout) {
+            this.timeout = timeout;
+            this.tracker.markDirty("timeout");
+        }
+    }
+
     private static class InvalidLoad {
         @VariableConfigurationReader.Configuration
         private static Object OBJECT = new Object();
@@ -0,0 +1,102 @@
+package com.github.nija123098.configurationcodeloader.reader;
+
+import com.github.nija123098.configurationcodeloader.util.ConfigurationCodeLoaderException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class WatchingURLClassVariableConfigurationReaderTest {
+
+    @BeforeClass
+    public static void javacCheck() {
+        URLClassVariableConfigurationReaderTest.javacCheck();
+    }
+
+    private static void compile(File dir, File src, int value) throws IOException, InterruptedException {
+        Files.write(src.toPath(),
+                Arrays.asList("package test;",
+                        "public class TestClass {",
+                        "   public static final Integer KEY = " + value + ";",
+                        "}"));
+        Process process = new ProcessBuilder("javac", "-d", dir.toString(), src.toString()).start();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) throw new RuntimeException("javac process not exited");
+        if (process.exitValue() != 0) {
+            throw new ConfigurationCodeLoaderException("javac exited with code \"" + process.exitValue() + "\"");
+        }
+    }
+
+    @Test
+    public void test() throws IOException, InterruptedException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File src = new File(dir, "TestClass.java");
+        File out = new File(new File(dir, "test"), "TestClass.class");
+        ConfigurationReader<?> reader = null;
+        try {
+            compile(dir, src, 5);
+            reader = new WatchingURLClassVariableConfigurationReader<>(dir.toURI().toURL(), "test.TestClass", field -> field.getName().equals("KEY"), 20);
+            BlockingQueue<Optional<?>> values = new LinkedBlockingQueue<>();
+            reader.registerListener(configurationResults -> values.add(configurationResults.get("KEY")));
+            reader.startProviding();
+            assertEquals(5, values.take().get());
+
+            compile(dir, src, 6);
+            Optional<?> value = values.poll(10, TimeUnit.SECONDS);
+            assertNotNull("Change was not detected", value);
+            assertEquals(6, value.get());
+        } finally {
+            if (reader != null) reader.stopProviding();
+            src.delete();
+            out.delete();
+            out.getParentFile().delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void recreatedDirectoryTest() throws IOException, InterruptedException {
+        File dir = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File staging = URLClassVariableConfigurationReaderTest.makeTemporaryDirectory("configuration-code-loader-test");
+        File src = new File(dir, "TestClass.java");
+        File out = new File(new File(dir, "test"), "TestClass.class");
+        File staged = new File(new File(staging, "test"), "TestClass.class");
+        ConfigurationReader<?> reader = null;
+        try {
+            compile(dir, src, 5);
+            compile(staging, src, 7);
+            reader = new WatchingURLClassVariableConfigurationReader<>(dir.toURI().toURL(), "test.TestClass", field -> field.getName().equals("KEY"), 20);
+            BlockingQueue<Optional<?>> values = new LinkedBlockingQueue<>();
+            reader.registerListener(configurationResults -> values.add(configurationResults.get("KEY")));
+            reader.startProviding();
+            assertEquals(5, values.take().get());
+
+            assertTrue(out.delete());
+            assertTrue(out.getParentFile().delete());
+            assertTrue(out.getParentFile().mkdir());
+            Files.copy(staged.toPath(), out.toPath());
+            Optional<?> value = values.poll(10, TimeUnit.SECONDS);
+            assertNotNull("Change was not detected", value);
+            assertEquals(7, value.get());
+        } finally {
+            if (reader != null) reader.stopProviding();
+            src.delete();
+            out.delete();
+            out.getParentFile().delete();
+            dir.delete();
+            staged.delete();
+            staged.getParentFile().delete();
+            staging.delete();
+        }
+    }
+}
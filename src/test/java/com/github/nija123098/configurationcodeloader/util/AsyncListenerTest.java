@@ -0,0 +1,82 @@
+package com.github.nija123098.configurationcodeloader.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncListenerTest {
+
+    @Test
+    public void mergeTest() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final List<ConfigurationResults<Object>> delivered = new ArrayList<>();
+        final AsyncListener<ConfigurationResults<Object>> listener = new AsyncListener<>(delivered::add, tasks::add, ConfigurationResults::merge);
+        final Register<ConfigurationResults<Object>> register = new Register<>();
+        register.registerListener(listener);
+
+        register.submit(results("A", 1));
+        register.submit(results("A", 2));
+        register.submit(results("B", 3));
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        assertEquals(1, delivered.size());
+        assertEquals(Optional.of(2), delivered.get(0).get("A"));
+        assertEquals(Optional.of(3), delivered.get(0).get("B"));
+
+        register.submit(results("A", 4));
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void dropOldestTest() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final List<Integer> delivered = new ArrayList<>();
+        final AsyncListener<Integer> listener = new AsyncListener<>(delivered::add, tasks::add, null, 2, AsyncListener.Backpressure.DROP_OLDEST);
+        listener.accept(1);
+        listener.accept(2);
+        listener.accept(3);
+        assertEquals(2, listener.getPendingCount());
+        tasks.remove(0).run();
+        assertEquals(2, delivered.size());
+        assertEquals(2, (int) delivered.get(0));
+        assertEquals(3, (int) delivered.get(1));
+    }
+
+    @Test
+    public void rejectedTest() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final List<Integer> delivered = new ArrayList<>();
+        final AtomicBoolean reject = new AtomicBoolean(true);
+        final AsyncListener<Integer> listener = new AsyncListener<>(delivered::add, task -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException();
+            }
+            tasks.add(task);
+        }, null, 4, AsyncListener.Backpressure.DROP_OLDEST);
+        try {
+            listener.accept(1);
+            fail();
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, listener.getPendingCount());
+        }
+        reject.set(false);
+        listener.accept(2);// schedules again rather than assuming the refused drain is pending
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(2, delivered.size());
+    }
+
+    private static ConfigurationResults<Object> results(String name, Object value) {
+        return new ConfigurationResults.Builder<>(1).set(name, value).build();
+    }
+}
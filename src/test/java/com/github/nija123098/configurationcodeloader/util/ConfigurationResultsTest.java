@@ -0,0 +1,58 @@
+package com.github.nija123098.configurationcodeloader.util;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationResultsTest {
+
+    @Test
+    public void builderTest() {
+        final ConfigurationResults<Object> results = new ConfigurationResults.Builder<>()
+                .set("B", 1)
+                .unset("A")
+                .set("C", 2)
+                .set("B", 3)
+                .build();
+        assertEquals(3, results.size());
+        assertEquals("A", results.getName(0));
+        assertEquals(Optional.empty(), results.get("A"));
+        assertTrue(results.isUnset("A"));
+        assertEquals(Optional.of(3), results.get("B"));
+        assertEquals(3, results.getValue("B"));
+        assertNull(results.get("D"));
+        assertFalse(results.containsKey("D"));
+        try {
+            results.put("D", Optional.of(4));
+            fail("Results were modified");
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void largeBuilderTest() {
+        final ConfigurationResults.Builder<Object> builder = new ConfigurationResults.Builder<>(1);
+        for (int i = 99; i >= 0; i--) {
+            builder.set("KEY" + (i % 50), i);
+        }
+        final ConfigurationResults<Object> results = builder.build();
+        assertEquals(50, results.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, results.getValue("KEY" + i));
+        }
+    }
+
+    @Test
+    public void mergeTest() {
+        final ConfigurationResults<Object> earlier = new ConfigurationResults.Builder<>().set("A", 1).set("B", 2).build();
+        final ConfigurationResults<Object> later = new ConfigurationResults.Builder<>().unset("B").set("C", 3).build();
+        final ConfigurationResults<Object> merged = ConfigurationResults.merge(earlier, later);
+        assertEquals(3, merged.size());
+        assertEquals(Optional.of(1), merged.get("A"));
+        assertEquals(Optional.empty(), merged.get("B"));
+        assertEquals(Optional.of(3), merged.get("C"));
+        assertSame(later, ConfigurationResults.merge(ConfigurationResults.empty(), later));
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.nija123098.configurationcodeloader.util;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JmxConfigurationMetricsTest {
+
+    @Test
+    public void dispatchTest() throws Exception {
+        JmxConfigurationMetrics metrics = new JmxConfigurationMetrics();
+        metrics.setSlowListenerThresholdNanos(1_000_000);
+        Register<Object> register = new Register<>();
+        register.setMetrics(metrics);
+        register.registerListener(o -> {
+        });
+        register.registerListener(new SlowListener());
+        register.submit(new Object());
+
+        assertEquals(2, metrics.getDispatchCount());
+        assertEquals(1, metrics.getSlowListenerCount());
+        assertEquals(SlowListener.class.getName(), metrics.getSlowestListener());
+        assertTrue(metrics.getDispatchMaxNanos() >= 5_000_000);
+        assertTrue(metrics.getDispatch99thPercentileNanos() >= 5_000_000);
+
+        ObjectName name = metrics.register("dispatchTest");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(2L, server.getAttribute(name, "DispatchCount"));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+        register.setMetrics(null);
+        register.submit(new Object());
+        assertEquals(2, metrics.getDispatchCount());
+    }
+
+    @Test
+    public void histogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(10_000);
+        assertEquals(100, histogram.getCount());
+        assertEquals(127, histogram.getPercentile(.5));
+        assertEquals(127, histogram.getPercentile(.99));
+        assertEquals(10_000, histogram.getPercentile(1));
+        assertEquals(10_000, histogram.getMax());
+    }
+
+    private static class SlowListener implements Consumer<Object> {
+        @Override
+        public void accept(Object o) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public class RegisterTest {
     private static final Object A = new Object(),
@@ -54,4 +55,42 @@ public class RegisterTest {
         assertEquals(E, firstListenerReference.get());
         assertEquals(E, secondListenerReference.get());
     }
+
+    @Test
+    public void failingListenerTest() {
+        final Register<Object> register = new Register<>();
+        final RuntimeException exception = new RuntimeException();
+        register.registerListener(o -> {
+            throw exception;
+        });
+        final AtomicReference<Object> reference = new AtomicReference<>();
+        register.registerListener(reference::set);
+        try {
+            register.submit(A);
+            fail("Did not rethrow the listener exception");
+        } catch (RuntimeException e) {
+            assertEquals(exception, e);
+        }
+        assertEquals(A, reference.get());
+        assertEquals(2, register.getListenerCount());
+    }
+
+    @Test
+    public void sharedExceptionTest() {
+        final Register<Object> register = new Register<>();
+        final RuntimeException exception = new RuntimeException();
+        register.registerListener(o -> {
+            throw exception;
+        });
+        register.registerListener(o -> {
+            throw exception;
+        });
+        try {
+            register.submit(A);
+            fail("Did not rethrow the listener exception");
+        } catch (RuntimeException e) {
+            assertEquals(exception, e);
+            assertEquals(0, e.getSuppressed().length);
+        }
+    }
 }